@@ -1,15 +1,16 @@
 package com.github.setial.intellijjavadocs.action;
 
+import com.github.setial.intellijjavadocs.exception.FileNotValidException;
 import com.github.setial.intellijjavadocs.exception.TemplateNotFoundException;
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
 import com.github.setial.intellijjavadocs.generator.JavaDocGenerator;
-import com.github.setial.intellijjavadocs.generator.impl.ClassJavaDocGenerator;
-import com.github.setial.intellijjavadocs.generator.impl.FieldJavaDocGenerator;
-import com.github.setial.intellijjavadocs.generator.impl.MethodJavaDocGenerator;
+import com.github.setial.intellijjavadocs.generator.JavaDocGeneratorRegistry;
+import com.github.setial.intellijjavadocs.operation.JavaDocEdit;
 import com.github.setial.intellijjavadocs.operation.JavaDocWriter;
 import com.intellij.codeInsight.CodeInsightActionHandler;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.LangDataKeys;
-import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.DumbService;
@@ -27,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -56,7 +58,7 @@ public class JavaDocGenerateAction extends BaseAction {
      */
     public JavaDocGenerateAction(CodeInsightActionHandler handler) {
         super(handler);
-        writer = ApplicationManager.getApplication().getComponent(JavaDocWriter.class);
+        writer = ServiceManager.getService(JavaDocWriter.class);
     }
 
     /**
@@ -97,23 +99,22 @@ public class JavaDocGenerateAction extends BaseAction {
                 break;
             }
         } while (isElementInSelection(element, startPosition, endPosition));
-        for (PsiElement ele : elements) {
-            processElement(ele);
-        }
+        processElements(elements, new GeneratorContext(file.getProject()));
     }
 
     /**
-     * Process element.
+     * Process the elements of one file, their edits are applied together in one write command.
      *
-     * @param element the Element
+     * @param elements the Elements
+     * @param context  the context of the run
      */
-    protected void processElement(@NotNull PsiElement element) {
-        JavaDocGenerator generator = getGenerator(element);
-        if (generator != null) {
+    protected void processElements(@NotNull List<PsiElement> elements, @NotNull GeneratorContext context) {
+        List<JavaDocEdit> edits = new ArrayList<JavaDocEdit>();
+        for (PsiElement element : elements) {
             try {
-                @SuppressWarnings("unchecked") PsiDocComment javaDoc = generator.generate(element);
-                if (javaDoc != null) {
-                    writer.write(javaDoc, element);
+                JavaDocEdit edit = createEdit(element, context);
+                if (edit != null) {
+                    edits.add(edit);
                 }
             } catch (TemplateNotFoundException e) {
                 LOGGER.warn(e);
@@ -122,26 +123,42 @@ public class JavaDocGenerateAction extends BaseAction {
                 Messages.showWarningDialog(MessageFormat.format(message, e.getMessage()), "Javadocs plugin");
             }
         }
+        try {
+            writer.apply(edits);
+        } catch (FileNotValidException e) {
+            LOGGER.error(e.getMessage());
+            Messages.showErrorDialog("Javadocs plugin is not available, cause: " + e.getMessage(), "Javadocs plugin");
+        }
     }
 
     /**
-     * Gets the generator.
+     * Creates the edit of the element javadoc. Only the read access is needed, the edit is applied later.
      *
      * @param element the Element
-     * @return the Generator
+     * @param context the context of the run
+     * @return the edit or null if the javadoc of the element is not changed
+     * @throws TemplateNotFoundException if there is no template for the element
      */
     @Nullable
-    protected JavaDocGenerator getGenerator(@NotNull PsiElement element) {
-        Project project = element.getProject();
-        JavaDocGenerator generator = null;
-        if (PsiClass.class.isAssignableFrom(element.getClass())) {
-            generator = new ClassJavaDocGenerator(project);
-        } else if (PsiMethod.class.isAssignableFrom(element.getClass())) {
-            generator = new MethodJavaDocGenerator(project);
-        } else if (PsiField.class.isAssignableFrom(element.getClass())) {
-            generator = new FieldJavaDocGenerator(project);
+    protected JavaDocEdit createEdit(@NotNull PsiElement element, @NotNull GeneratorContext context) {
+        JavaDocGenerator<PsiElement> generator = getGenerator(element);
+        if (generator == null) {
+            return null;
         }
-        return generator;
+        PsiDocComment javaDoc = generator.generate(element, context);
+        return javaDoc != null ? new JavaDocEdit(element, javaDoc) : null;
+    }
+
+    /**
+     * Gets the generator of the element kind from the project registry.
+     *
+     * @param element the Element
+     * @return the Generator or null if the element kind is not registered
+     */
+    @Nullable
+    protected JavaDocGenerator<PsiElement> getGenerator(@NotNull PsiElement element) {
+        Project project = element.getProject();
+        return ServiceManager.getService(project, JavaDocGeneratorRegistry.class).getGenerator(element);
     }
 
     /**
@@ -176,11 +193,7 @@ public class JavaDocGenerateAction extends BaseAction {
     }
 
     private boolean isAllowedElementType(@NotNull PsiElement element) {
-        boolean result = false;
-        if (element instanceof PsiClass || element instanceof PsiField || element instanceof PsiMethod) {
-            result = true;
-        }
-        return result;
+        return getGenerator(element) != null;
     }
 
 }
@@ -1,9 +1,10 @@
 package com.github.setial.intellijjavadocs.action;
 
-import com.github.setial.intellijjavadocs.operation.JavaDocWriter;
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
+import com.github.setial.intellijjavadocs.operation.JavaDocEdit;
 import com.intellij.codeInsight.CodeInsightActionHandler;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.javadoc.PsiDocComment;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -13,14 +14,11 @@ import org.jetbrains.annotations.NotNull;
  */
 public class JavaDocRemoveAction extends JavaDocGenerateAction {
 
-    private JavaDocWriter writer;
-
     /**
      * Instantiates a new Java doc remove action.
      */
     public JavaDocRemoveAction() {
         this(new JavaDocHandler());
-        writer = ApplicationManager.getApplication().getComponent(JavaDocWriter.class);
     }
 
     /**
@@ -33,7 +31,7 @@ public class JavaDocRemoveAction extends JavaDocGenerateAction {
     }
 
     @Override
-    protected void processElement(@NotNull PsiElement element) {
-        writer.remove(element);
+    protected JavaDocEdit createEdit(@NotNull PsiElement element, @NotNull GeneratorContext context) {
+        return element.getFirstChild() instanceof PsiDocComment ? new JavaDocEdit(element, null) : null;
     }
 }
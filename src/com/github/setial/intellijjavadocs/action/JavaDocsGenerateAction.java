@@ -1,17 +1,37 @@
 package com.github.setial.intellijjavadocs.action;
 
+import com.github.setial.intellijjavadocs.exception.FileNotValidException;
+import com.github.setial.intellijjavadocs.exception.TemplateNotFoundException;
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
+import com.github.setial.intellijjavadocs.operation.JavaDocEdit;
+import com.github.setial.intellijjavadocs.operation.JavaDocWriter;
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.actionSystem.LangDataKeys;
 import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDocumentManager;
@@ -21,10 +41,17 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
 
+import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The type Java docs generate action.
@@ -62,10 +89,12 @@ public class JavaDocsGenerateAction extends JavaDocGenerateAction implements Dum
         final Editor editor = CommonDataKeys.EDITOR.getData(dataContext);
         final VirtualFile[] files = CommonDataKeys.VIRTUAL_FILE_ARRAY.getData(dataContext);
 
-        if (editor != null && file != null) {
-            processFile(file);
+        if (editor != null && file != null && file.getVirtualFile() != null) {
+            runTask(file.getProject(), new VirtualFile[]{file.getVirtualFile()});
+        } else if (editor != null && file != null) {
+            processFile(file, new GeneratorContext(file.getProject()));
         } else if (project != null && files != null) {
-            processFiles(files, project);
+            runTask(project, files);
         } else {
             LOGGER.error("Cannot get com.intellij.openapi.editor.Editor, com.intellij.openapi.project.Project, "
                     + "com.intellij.openapi.vfs.VirtualFile");
@@ -74,23 +103,38 @@ public class JavaDocsGenerateAction extends JavaDocGenerateAction implements Dum
 
     }
 
-    private void processFiles(VirtualFile[] files, Project project) {
+    /**
+     * Gets the title of the background task.
+     *
+     * @return the task title
+     */
+    @NotNull
+    protected String getTaskTitle() {
+        return "Generating JavaDocs";
+    }
+
+    private void runTask(Project project, VirtualFile[] files) {
+        // the psi is brought up to date with the documents before the task reads it
+        PsiDocumentManager.getInstance(project).commitAllDocuments();
+        ProgressManager.getInstance().run(new JavaDocsTask(project, files, new GeneratorContext(project)));
+    }
+
+    private static void collectFiles(VirtualFile[] files, List<VirtualFile> result, ProgressIndicator indicator) {
         for (VirtualFile virtualFile : files) {
+            indicator.checkCanceled();
             if (virtualFile.isDirectory()) {
-                processFiles(virtualFile.getChildren(), project);
-            } else {
-                PsiFile file = convertToPsiFile(virtualFile, project);
-                processFile(file);
+                collectFiles(virtualFile.getChildren(), result, indicator);
+            } else if (!virtualFile.getFileType().isBinary()) {
+                result.add(virtualFile);
             }
         }
     }
 
-    private PsiFile convertToPsiFile(VirtualFile file, Project project) {
-        PsiManager manager = PsiManager.getInstance(project);
-        return manager.findFile(file);
+    private void processFile(PsiFile file, GeneratorContext context) {
+        processElements(getElements(file), context);
     }
 
-    private void processFile(PsiFile file) {
+    private List<PsiElement> getElements(PsiFile file) {
         // Find all class elements
         List<PsiClass> classElements = getClasses(file);
         List<PsiElement> elements = new LinkedList<>(classElements);
@@ -98,9 +142,7 @@ public class JavaDocsGenerateAction extends JavaDocGenerateAction implements Dum
             elements.addAll(PsiTreeUtil.getChildrenOfTypeAsList(classElement, PsiMethod.class));
             elements.addAll(PsiTreeUtil.getChildrenOfTypeAsList(classElement, PsiField.class));
         }
-        for (PsiElement element : elements) {
-            processElement(element);
-        }
+        return elements;
     }
 
     @Override
@@ -166,4 +208,209 @@ public class JavaDocsGenerateAction extends JavaDocGenerateAction implements Dum
         return elements;
     }
 
+    /**
+     * The background task of the batch. It runs in two phases. The files are read in parallel by the worker pool
+     * under the read actions which give way to the write actions, and the javadoc edits of each file are computed
+     * there. Then the edits are applied file by file on the UI thread, so the UI is held only for the short write of
+     * one file. The edits of the file changed between the phases are computed again before they are applied.
+     */
+    private class JavaDocsTask extends Task.Backgroundable {
+
+        private final VirtualFile[] roots;
+
+        private final GeneratorContext context;
+
+        private final JavaDocWriter writer = ServiceManager.getService(JavaDocWriter.class);
+
+        private volatile int totalFiles;
+
+        private volatile int processedFiles;
+
+        private volatile int appliedEdits;
+
+        private volatile String templateError;
+
+        private volatile int failedFiles;
+
+        private volatile String fileError;
+
+        /**
+         * Instantiates a new Java docs task.
+         *
+         * @param project the Project
+         * @param roots   the selected files and directories
+         * @param context the context of the run
+         */
+        JavaDocsTask(@NotNull Project project, @NotNull VirtualFile[] roots, @NotNull GeneratorContext context) {
+            super(project, getTaskTitle(), true);
+            this.roots = roots;
+            this.context = context;
+        }
+
+        @Override
+        public void run(@NotNull final ProgressIndicator indicator) {
+            indicator.setIndeterminate(false);
+            final List<VirtualFile> files = new ArrayList<VirtualFile>();
+            ApplicationManager.getApplication().runReadAction(new Runnable() {
+                @Override
+                public void run() {
+                    collectFiles(roots, files, indicator);
+                }
+            });
+            totalFiles = files.size();
+
+            indicator.setText("Reading files");
+            final ConcurrentMap<VirtualFile, FileEdits> pendingEdits = new ConcurrentHashMap<VirtualFile, FileEdits>();
+            final AtomicInteger readFiles = new AtomicInteger();
+            JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, false,
+                    new Processor<VirtualFile>() {
+                        @Override
+                        public boolean process(VirtualFile file) {
+                            FileEdits edits = readEdits(file, indicator);
+                            if (edits != null && !edits.edits.isEmpty()) {
+                                pendingEdits.put(file, edits);
+                            }
+                            indicator.setFraction(readFiles.incrementAndGet() / (2.0 * totalFiles));
+                            return true;
+                        }
+                    });
+            indicator.checkCanceled();
+
+            indicator.setText("Writing javadocs");
+            for (VirtualFile file : files) {
+                indicator.checkCanceled();
+                indicator.setText2(file.getPresentableUrl());
+                final FileEdits edits = pendingEdits.get(file);
+                if (edits != null) {
+                    ApplicationManager.getApplication().invokeAndWait(new Runnable() {
+                        @Override
+                        public void run() {
+                            writeEdits(edits);
+                        }
+                    }, ModalityState.defaultModalityState());
+                }
+                processedFiles++;
+                indicator.setFraction(0.5 + processedFiles / (2.0 * totalFiles));
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            notifySummary(MessageFormat.format("Javadocs are updated for {0} elements in {1} files.", appliedEdits,
+                    processedFiles));
+        }
+
+        @Override
+        public void onCancel() {
+            notifySummary(MessageFormat.format(
+                    "Cancelled. Javadocs are updated for {0} elements in {1} of {2} files.", appliedEdits,
+                    processedFiles, totalFiles));
+        }
+
+        private FileEdits readEdits(final VirtualFile file, final ProgressIndicator indicator) {
+            final Ref<FileEdits> result = Ref.create();
+            final Ref<Boolean> dumb = Ref.create(Boolean.FALSE);
+            Runnable read = new Runnable() {
+                @Override
+                public void run() {
+                    dumb.set(DumbService.isDumb(myProject));
+                    if (!dumb.get()) {
+                        result.set(computeEdits(file, indicator));
+                    }
+                }
+            };
+            // the read is cancelled by the coming write action and started again after it
+            while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(read) || dumb.get()) {
+                indicator.checkCanceled();
+                if (dumb.get()) {
+                    DumbService.getInstance(myProject).waitForSmartMode();
+                } else {
+                    ProgressIndicatorUtils.yieldToPendingWriteActions();
+                }
+            }
+            return result.get();
+        }
+
+        private void writeEdits(FileEdits edits) {
+            FileEdits actualEdits = edits;
+            Document document = FileDocumentManager.getInstance().getDocument(edits.file);
+            if (document == null || document.getModificationStamp() != edits.stamp) {
+                // the file was changed after it was read, the edits are computed for its current content
+                if (document != null) {
+                    PsiDocumentManager.getInstance(myProject).commitDocument(document);
+                }
+                actualEdits = computeEdits(edits.file, new EmptyProgressIndicator());
+            }
+            if (actualEdits != null) {
+                try {
+                    appliedEdits += writer.apply(actualEdits.edits);
+                } catch (FileNotValidException e) {
+                    LOGGER.warn(e.getMessage());
+                    failedFiles++;
+                    fileError = e.getMessage();
+                }
+            }
+        }
+
+        private FileEdits computeEdits(VirtualFile file, ProgressIndicator indicator) {
+            PsiFile psiFile = file.isValid() ? PsiManager.getInstance(myProject).findFile(file) : null;
+            if (psiFile == null) {
+                return null;
+            }
+            PsiDocumentManager documentManager = PsiDocumentManager.getInstance(myProject);
+            Document document = documentManager.getDocument(psiFile);
+            // the psi of the uncommitted document is stale, the stamp which never matches makes it computed again
+            long stamp = document == null || documentManager.isUncommited(document) ? -1
+                    : document.getModificationStamp();
+            List<JavaDocEdit> edits = new ArrayList<JavaDocEdit>();
+            for (PsiElement element : getElements(psiFile)) {
+                indicator.checkCanceled();
+                try {
+                    JavaDocEdit edit = createEdit(element, context);
+                    if (edit != null) {
+                        edits.add(edit);
+                    }
+                } catch (TemplateNotFoundException e) {
+                    LOGGER.warn(e);
+                    templateError = e.getMessage();
+                }
+            }
+            return new FileEdits(file, stamp, edits);
+        }
+
+        private void notifySummary(String summary) {
+            NotificationType type = NotificationType.INFORMATION;
+            String content = summary;
+            if (templateError != null) {
+                type = NotificationType.WARNING;
+                content += "\nCan not find suitable template for some elements, e.g.:\n" + templateError;
+            }
+            if (fileError != null) {
+                type = NotificationType.WARNING;
+                content += MessageFormat.format("\nCan not write {0} files, e.g.:\n", failedFiles) + fileError;
+            }
+            Notifications.Bus.notify(new Notification("Javadocs plugin", "Javadocs plugin", content, type), myProject);
+        }
+
+    }
+
+    /**
+     * The edits of one file computed in the read phase and the stamp of the document they were computed for.
+     */
+    private static class FileEdits {
+
+        private final VirtualFile file;
+
+        private final long stamp;
+
+        private final List<JavaDocEdit> edits;
+
+        private FileEdits(VirtualFile file, long stamp, List<JavaDocEdit> edits) {
+            this.file = file;
+            this.stamp = stamp;
+            this.edits = edits;
+        }
+
+    }
+
 }
@@ -1,8 +1,9 @@
 package com.github.setial.intellijjavadocs.action;
 
-import com.github.setial.intellijjavadocs.operation.JavaDocWriter;
-import com.intellij.openapi.application.ApplicationManager;
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
+import com.github.setial.intellijjavadocs.operation.JavaDocEdit;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.javadoc.PsiDocComment;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -12,17 +13,20 @@ import org.jetbrains.annotations.NotNull;
  */
 public class JavaDocsRemoveAction extends JavaDocsGenerateAction {
 
-    private JavaDocWriter writer;
-
     /**
      * Instantiates a new Java docs remove action.
      */
     public JavaDocsRemoveAction() {
-        writer = ApplicationManager.getApplication().getComponent(JavaDocWriter.class);
+    }
+
+    @NotNull
+    @Override
+    protected String getTaskTitle() {
+        return "Removing JavaDocs";
     }
 
     @Override
-    protected void processElement(@NotNull PsiElement element) {
-        writer.remove(element);
+    protected JavaDocEdit createEdit(@NotNull PsiElement element, @NotNull GeneratorContext context) {
+        return element.getFirstChild() instanceof PsiDocComment ? new JavaDocEdit(element, null) : null;
     }
 }
@@ -1,13 +1,12 @@
 package com.github.setial.intellijjavadocs.configuration;
 
-import com.intellij.openapi.components.ApplicationComponent;
 
 /**
  * The interface Java doc configuration.
  *
  * @author Sergey Timofiychuk
  */
-public interface JavaDocConfiguration extends ApplicationComponent {
+public interface JavaDocConfiguration {
 
     /**
      * The constant COMPONENT_VERSION.
@@ -0,0 +1,69 @@
+package com.github.setial.intellijjavadocs.configuration.impl;
+
+import com.github.setial.intellijjavadocs.configuration.JavaDocConfiguration;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.JComponent;
+
+/**
+ * The settings page of the plugin. The page is created by the platform, so it delegates to the configuration service
+ * instead of being another configuration, the settings applied on the page and the settings loaded from the storage
+ * are held by the same instance. The name and the help topic are known without the service, so the settings tree
+ * and the search index do not create it.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class JavaDocConfigurable implements Configurable {
+
+    /**
+     * The name of the settings page.
+     */
+    public static final String DISPLAY_NAME = "JavaDoc";
+
+    @Nls
+    @Override
+    public String getDisplayName() {
+        return DISPLAY_NAME;
+    }
+
+    @Nullable
+    @Override
+    public String getHelpTopic() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public JComponent createComponent() {
+        return getConfiguration().createComponent();
+    }
+
+    @Override
+    public boolean isModified() {
+        return getConfiguration().isModified();
+    }
+
+    @Override
+    public void apply() throws ConfigurationException {
+        getConfiguration().apply();
+    }
+
+    @Override
+    public void reset() {
+        getConfiguration().reset();
+    }
+
+    @Override
+    public void disposeUIResources() {
+        getConfiguration().disposeUIResources();
+    }
+
+    private Configurable getConfiguration() {
+        return (Configurable) ServiceManager.getService(JavaDocConfiguration.class);
+    }
+
+}
@@ -8,8 +8,8 @@ import com.github.setial.intellijjavadocs.model.settings.Mode;
 import com.github.setial.intellijjavadocs.model.settings.Visibility;
 import com.github.setial.intellijjavadocs.template.DocTemplateManager;
 import com.github.setial.intellijjavadocs.ui.settings.ConfigPanel;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.diagnostic.Logger;
@@ -18,7 +18,6 @@ import com.intellij.openapi.options.ConfigurationException;
 import com.intellij.openapi.ui.Messages;
 import org.jdom.Element;
 import org.jetbrains.annotations.Nls;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.JComponent;
@@ -26,7 +25,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * The type Java doc configuration impl.
+ * The type Java doc configuration impl. The application service, the settings page is shown by
+ * {@link JavaDocConfigurable} which delegates to it.
  *
  * @author Sergey Timofiychuk
  */
@@ -45,8 +45,10 @@ public class JavaDocConfigurationImpl implements JavaDocConfiguration, Configura
      * Instantiates a new Java doc configuration object.
      */
     public JavaDocConfigurationImpl() {
-        templateManager = ApplicationManager.getApplication().getComponent(DocTemplateManager.class);
+        templateManager = ServiceManager.getService(DocTemplateManager.class);
 
+        // the service is the only instance, the settings page delegates to it, so the defaults are loaded before
+        // the stored state is loaded by loadState
         loadDefaultSettings();
     }
 
@@ -76,20 +78,13 @@ public class JavaDocConfigurationImpl implements JavaDocConfiguration, Configura
         JavaDocSettings.getInstance().getTemplateSettings().setMethodTemplates(templateManager.getMethodTemplates());
         JavaDocSettings.getInstance().getTemplateSettings().setFieldTemplates(templateManager.getFieldTemplates());
         JavaDocSettings.getInstance().getTemplateSettings().setVariables(templateManager.getVariables());
-    }
-
-    @Override
-    public void initComponent() {
-    }
-
-    @Override
-    public void disposeComponent() {
+        JavaDocSettings.getInstance().publishSnapshot();
     }
 
     @Nls
     @Override
     public String getDisplayName() {
-        return "JavaDoc";
+        return JavaDocConfigurable.DISPLAY_NAME;
     }
 
     @Nullable
@@ -98,12 +93,6 @@ public class JavaDocConfigurationImpl implements JavaDocConfiguration, Configura
         return null;
     }
 
-    @NotNull
-    @Override
-    public String getComponentName() {
-        return COMPONENT_NAME;
-    }
-
     @Nullable
     @Override
     public JComponent createComponent() {
@@ -121,7 +110,9 @@ public class JavaDocConfigurationImpl implements JavaDocConfiguration, Configura
 
     @Override
     public void apply() throws ConfigurationException {
+        configPanel.validateTemplates();
         configPanel.apply();
+        JavaDocSettings.getInstance().publishSnapshot();
         setupTemplates();
     }
 
@@ -147,6 +138,9 @@ public class JavaDocConfigurationImpl implements JavaDocConfiguration, Configura
     @Override
     public void loadState(Element javaDocSettings) {
         JavaDocSettings.getInstance().loadJavaDocSettingsByElement(javaDocSettings);
+        // the settings stored before the predicates keep the legacy regexps of the default templates
+        JavaDocSettings.getInstance().getTemplateSettings().migrateLegacySelectors();
+        JavaDocSettings.getInstance().publishSnapshot();
         setupTemplates();
     }
 
@@ -0,0 +1,149 @@
+package com.github.setial.intellijjavadocs.generator;
+
+import com.github.setial.intellijjavadocs.configuration.JavaDocConfiguration;
+import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
+import com.github.setial.intellijjavadocs.model.settings.SettingsSnapshot;
+import com.github.setial.intellijjavadocs.template.DocTemplateManager;
+import com.intellij.openapi.application.ApplicationNamesInfo;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.SystemProperties;
+import com.intellij.util.text.DateFormatUtil;
+import org.apache.commons.lang.time.DateFormatUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The state shared by all the elements of one generation run: the template params which do not depend on the
+ * element, i.e. the date and time, the user, the project and the user variables. They are computed once when the
+ * run starts, so all the elements carry the same timestamps. The settings are taken once as well, so the run is not
+ * affected by the settings applied meanwhile.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class GeneratorContext {
+
+    private static final String DATE_FORMAT = "yyyy/MM/dd";
+
+    private static final String VERSION = "VERSION";
+
+    private static final String BASE_VERSION = "BASE_VERSION";
+
+    private final Map<String, Object> baseParameters;
+
+    private final Set<String> variableNames;
+
+    private final SettingsSnapshot settings;
+
+    /**
+     * Instantiates a new Generator context for the run started now.
+     *
+     * @param project the Project
+     */
+    public GeneratorContext(@NotNull Project project) {
+        // the configuration service applies the stored settings and variables when it is created
+        ServiceManager.getService(JavaDocConfiguration.class);
+        settings = JavaDocSettings.getInstance().getSnapshot();
+        Map<String, String> variables = ServiceManager.getService(DocTemplateManager.class).getVariables();
+        variableNames = Collections.unmodifiableSet(variables.keySet());
+        baseParameters = Collections.unmodifiableMap(createBaseParameters(project, variables));
+    }
+
+    /**
+     * Gets the params which are the same for all the elements of the run.
+     *
+     * @return the base parameters
+     */
+    @NotNull
+    public Map<String, Object> getBaseParameters() {
+        return baseParameters;
+    }
+
+    /**
+     * Gets the settings of the run.
+     *
+     * @return the settings
+     */
+    @NotNull
+    public SettingsSnapshot getSettings() {
+        return settings;
+    }
+
+    /**
+     * Creates the params of one element: the element params are put over the base params, which are not copied.
+     *
+     * @return the parameters
+     */
+    @NotNull
+    public Map<String, Object> createParameters() {
+        return new LayeredParameters(baseParameters);
+    }
+
+    /**
+     * Checks whether the param is set by the user variable. The user variables take precedence over the default
+     * element params.
+     *
+     * @param name the param name
+     * @return the boolean
+     */
+    public boolean isVariable(@NotNull String name) {
+        return variableNames.contains(name);
+    }
+
+    private static Map<String, Object> createBaseParameters(Project project, Map<String, String> variables) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        Calendar calendar = Calendar.getInstance();
+        Date date = calendar.getTime();
+        // 下面这些都是intellij 内部的变量名称
+        params.put("DATE", DateFormatUtil.formatDate(date));
+        params.put("TIME", DateFormatUtil.formatTime(date));
+        params.put("YEAR", new SimpleDateFormat("yyyy").format(date));
+        params.put("MONTH", getCalendarValue(calendar, Calendar.MONTH));
+        params.put("MONTH_NAME_SHORT", new SimpleDateFormat("MMM").format(date));
+        params.put("MONTH_NAME_FULL", new SimpleDateFormat("MMMM").format(date));
+        params.put("DAY", getCalendarValue(calendar, Calendar.DAY_OF_MONTH));
+        params.put("DAY_NAME_SHORT", new SimpleDateFormat("EEE").format(date));
+        params.put("DAY_NAME_FULL", new SimpleDateFormat("EEEE").format(date));
+        params.put("HOUR", getCalendarValue(calendar, Calendar.HOUR_OF_DAY));
+        params.put("MINUTE", getCalendarValue(calendar, Calendar.MINUTE));
+        params.put("SECOND", getCalendarValue(calendar, Calendar.SECOND));
+
+        params.put("USER", SystemProperties.getUserName());
+        params.put("PRODUCT_NAME", ApplicationNamesInfo.getInstance().getFullProductName());
+        params.put("DS", "$"); // Dollar sign, strongly needed for PHP, JS, etc. See WI-8979
+        params.put("PROJECT_NAME", project.getName());
+
+        params.put("NOW", DateFormatUtils.format(date, DATE_FORMAT));
+        params.put("AUTHOR", SystemProperties.getUserName());
+
+        // 处理变量
+        params.putAll(variables);
+        // 处理version
+        String version = (String) params.get(VERSION);
+        params.put(VERSION, StringUtils.isEmpty(version) ? "1.0" : version);
+        String baseVersion = (String) params.get(BASE_VERSION);
+        params.put(BASE_VERSION, StringUtils.isEmpty(baseVersion) ? params.get(VERSION) : baseVersion);
+        return params;
+    }
+
+    private static String getCalendarValue(final Calendar calendar, final int field) {
+        int val = calendar.get(field);
+        if (field == Calendar.MONTH) {
+            val++;
+        }
+        final String result = Integer.toString(val);
+        if (result.length() == 1) {
+            return "0" + result;
+        }
+        return result;
+    }
+
+}
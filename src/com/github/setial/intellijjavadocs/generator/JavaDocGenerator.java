@@ -6,7 +6,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
- * The interface Java doc generator.
+ * The interface Java doc generator. The generators are stateless, the state of the generation run is passed with
+ * the context, so one generator serves all the elements of its kind in the project.
  *
  * @param <T> the type parameter
  * @author Sergey Timofiychuk
@@ -17,9 +18,10 @@ public interface JavaDocGenerator<T extends PsiElement> {
      * Generate java docs.
      *
      * @param element the Element
+     * @param context the context of the run
      * @return the Psi doc comment
      */
     @Nullable
-    PsiDocComment generate(@NotNull T element);
+    PsiDocComment generate(@NotNull T element, @NotNull GeneratorContext context);
 
 }
@@ -0,0 +1,37 @@
+package com.github.setial.intellijjavadocs.generator;
+
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The interface Java doc generator registry. The project service which holds one generator per element kind; the
+ * kind is the psi interface of the element, i.e. {@link com.intellij.psi.PsiClass},
+ * {@link com.intellij.psi.PsiMethod} and {@link com.intellij.psi.PsiField} by default. When the element implements
+ * several registered kinds, e.g. {@link com.intellij.psi.PsiEnumConstant} is also a field, the generator of the
+ * most specific kind is used.
+ *
+ * @author Sergey Timofiychuk
+ */
+public interface JavaDocGeneratorRegistry {
+
+    /**
+     * Gets the generator for the element.
+     *
+     * @param element the Element
+     * @param <T>     the element type
+     * @return the Generator or null if the element kind is not registered
+     */
+    @Nullable
+    <T extends PsiElement> JavaDocGenerator<T> getGenerator(@NotNull T element);
+
+    /**
+     * Registers the generator for the element kind, the generator registered before for the kind is replaced.
+     *
+     * @param elementType the psi interface of the element kind
+     * @param generator   the generator
+     * @param <T>         the element type
+     */
+    <T extends PsiElement> void register(@NotNull Class<T> elementType, @NotNull JavaDocGenerator<? super T> generator);
+
+}
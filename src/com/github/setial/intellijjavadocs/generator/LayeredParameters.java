@@ -0,0 +1,54 @@
+package com.github.setial.intellijjavadocs.generator;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The template params of one element: the few element params are kept in the own map, the other params are looked
+ * up in the shared base params. The base params are only copied if the whole map is iterated.
+ *
+ * @author Sergey Timofiychuk
+ */
+final class LayeredParameters extends AbstractMap<String, Object> {
+
+    private final Map<String, Object> base;
+
+    private final Map<String, Object> local = new HashMap<String, Object>();
+
+    /**
+     * Instantiates a new Layered parameters.
+     *
+     * @param base the base params
+     */
+    LayeredParameters(Map<String, Object> base) {
+        this.base = base;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return local.containsKey(key) ? local.get(key) : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return local.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        local.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> result = new HashMap<String, Object>(base);
+        result.putAll(local);
+        return Collections.unmodifiableMap(result).entrySet();
+    }
+
+}
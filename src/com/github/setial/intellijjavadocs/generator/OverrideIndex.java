@@ -0,0 +1,75 @@
+package com.github.setial.intellijjavadocs.generator;
+
+import com.intellij.psi.HierarchicalMethodSignature;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The methods of one class which override or implement the methods of its supertypes. The signatures visible in
+ * the class are resolved through the whole supertype hierarchy once, when the index is built, so each method of the
+ * class is answered with one set lookup instead of its own {@link PsiMethod#findSuperMethods()} call.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class OverrideIndex {
+
+    private final Set<PsiMethod> overridingMethods;
+
+    /**
+     * Instantiates a new Override index of the class.
+     *
+     * @param psiClass the class
+     */
+    private OverrideIndex(@NotNull PsiClass psiClass) {
+        Set<PsiMethod> methods = new HashSet<PsiMethod>();
+        for (HierarchicalMethodSignature signature : psiClass.getVisibleSignatures()) {
+            PsiMethod method = signature.getMethod();
+            // the static methods hide the super methods, they are not found by findSuperMethods
+            if (psiClass.equals(method.getContainingClass()) && !method.hasModifierProperty(PsiModifier.STATIC)
+                    && !signature.getSuperSignatures().isEmpty()) {
+                methods.add(method);
+            }
+        }
+        overridingMethods = Collections.unmodifiableSet(methods);
+    }
+
+    /**
+     * Gets the override index of the class. The index is cached on the class itself until the java structure of the
+     * project changes, so it lives no longer than the class psi and is built again once the hierarchy may differ.
+     *
+     * @param psiClass the class
+     * @return the override index
+     */
+    @NotNull
+    public static OverrideIndex getInstance(@NotNull final PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(psiClass, new CachedValueProvider<OverrideIndex>() {
+            @Nullable
+            @Override
+            public Result<OverrideIndex> compute() {
+                return Result.create(new OverrideIndex(psiClass),
+                        PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+            }
+        });
+    }
+
+    /**
+     * Checks whether the method of the class has the super methods.
+     *
+     * @param method the method of the indexed class
+     * @return the boolean
+     */
+    public boolean isOverriding(@NotNull PsiMethod method) {
+        return overridingMethods.contains(method);
+    }
+
+}
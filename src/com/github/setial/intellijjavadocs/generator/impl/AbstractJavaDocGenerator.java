@@ -1,34 +1,27 @@
 package com.github.setial.intellijjavadocs.generator.impl;
 
+import com.github.setial.intellijjavadocs.configuration.JavaDocConfiguration;
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
 import com.github.setial.intellijjavadocs.generator.JavaDocGenerator;
 import com.github.setial.intellijjavadocs.model.JavaDoc;
-import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
 import com.github.setial.intellijjavadocs.model.settings.Mode;
-import com.github.setial.intellijjavadocs.model.settings.Visibility;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.template.DocTemplateManager;
 import com.github.setial.intellijjavadocs.template.DocTemplateProcessor;
 import com.github.setial.intellijjavadocs.utils.JavaDocUtils;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.application.ApplicationNamesInfo;
+import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.pom.PomNamedTarget;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
-import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.javadoc.PsiDocComment;
-import com.intellij.util.SystemProperties;
-import com.intellij.util.text.DateFormatUtil;
-import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The type Abstract java doc generator.
@@ -38,14 +31,6 @@ import java.util.Map;
  */
 public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements JavaDocGenerator<T> {
 
-    private final String DATE_FORMAT = "yyyy/MM/dd";
-
-    private final String VERSION = "VERSION";
-
-    private final String BASE_VERSION = "BASE_VERSION";
-
-    private final Project project;
-
     private DocTemplateManager docTemplateManager;
 
     private DocTemplateProcessor docTemplateProcessor;
@@ -58,15 +43,16 @@ public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements
      * @param project the Project
      */
     public AbstractJavaDocGenerator(@NotNull Project project) {
-        this.project = project;
-        docTemplateManager = ApplicationManager.getApplication().getComponent(DocTemplateManager.class);
+        // the configuration service applies the stored templates to the template manager when it is created
+        ServiceManager.getService(JavaDocConfiguration.class);
+        docTemplateManager = ServiceManager.getService(DocTemplateManager.class);
         docTemplateProcessor = project.getComponent(DocTemplateProcessor.class);
         psiElementFactory = PsiElementFactory.getInstance(project);
     }
 
     @Nullable
     @Override
-    public final PsiDocComment generate(@NotNull T element) {
+    public final PsiDocComment generate(@NotNull T element, @NotNull GeneratorContext context) {
         PsiDocComment result = null;
         PsiDocComment oldDocComment = null;
         PsiElement firstElement = element.getFirstChild();
@@ -74,26 +60,23 @@ public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements
             oldDocComment = (PsiDocComment) firstElement;
         }
 
-        JavaDocSettings configuration = JavaDocSettings.getInstance();
-        if (configuration != null) {
-            Mode mode = configuration.getGeneralSettings().getMode();
-            switch (mode) {
-                case KEEP:
-                    if (oldDocComment != null) {
-                        break;
-                    }
-                case REPLACE:
-                    result = replaceJavaDocAction(element);
-                    break;
-                case UPDATE:
-                default:
-                    if (oldDocComment != null) {
-                        result = updateJavaDocAction(element, oldDocComment);
-                    } else {
-                        result = replaceJavaDocAction(element);
-                    }
+        Mode mode = context.getSettings().getMode();
+        switch (mode) {
+            case KEEP:
+                if (oldDocComment != null) {
                     break;
-            }
+                }
+            case REPLACE:
+                result = replaceJavaDocAction(element, context);
+                break;
+            case UPDATE:
+            default:
+                if (oldDocComment != null) {
+                    result = updateJavaDocAction(element, oldDocComment, context);
+                } else {
+                    result = replaceJavaDocAction(element, context);
+                }
+                break;
         }
         return result;
     }
@@ -132,84 +115,72 @@ public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements
      * Check whether javadoc should be generated.
      *
      * @param modifiers the modifiers
+     * @param context   the context of the run
      * @return the boolean
      */
-    protected boolean shouldGenerate(PsiModifierList modifiers) {
-        return checkModifiers(modifiers, PsiModifier.PUBLIC, Visibility.PUBLIC) || checkModifiers(modifiers,
-                PsiModifier.PROTECTED, Visibility.PROTECTED) || checkModifiers(modifiers, PsiModifier.PACKAGE_LOCAL,
-                Visibility.DEFAULT) || checkModifiers(modifiers, PsiModifier.PRIVATE, Visibility.PRIVATE);
+    protected boolean shouldGenerate(PsiModifierList modifiers, GeneratorContext context) {
+        if (modifiers != null) {
+            // only the modifiers of the enabled visibilities are checked
+            for (String modifier : context.getSettings().getVisibleModifiers()) {
+                if (modifiers.hasModifierProperty(modifier)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    private String getCalendarValue(final Calendar calendar, final int field) {
-        int val = calendar.get(field);
-        if (field == Calendar.MONTH) {
-            val++;
+    /**
+     * Gets default parameters used to build template. Only the element params are put to the returned map, the
+     * others are shared by all the elements of the run. The element params the template does not read are skipped.
+     *
+     * @param element  the element
+     * @param template the template the params are built for
+     * @param context  the context of the run
+     * @return the default parameters
+     */
+    protected Map<String, Object> getDefaultParameters(PomNamedTarget element, DocTemplate template,
+            GeneratorContext context) {
+        Map<String, Object> params = context.createParameters();
+        putDefaultParameter(params, context, "element", element);
+        if (isReferenced(template, "name")) {
+            putDefaultParameter(params, context, "name",
+                    getDocTemplateProcessor().buildDescription(element.getName(), true));
         }
-        final String result = Integer.toString(val);
-        if (result.length() == 1) {
-            return "0" + result;
+        if (isReferenced(template, "partName")) {
+            putDefaultParameter(params, context, "partName",
+                    getDocTemplateProcessor().buildPartialDescription(element.getName()));
         }
-        return result;
+        if (isReferenced(template, "splitNames")) {
+            putDefaultParameter(params, context, "splitNames",
+                    StringUtils.splitByCharacterTypeCamelCase(element.getName()));
+        }
+        return params;
     }
 
     /**
-     * Gets default parameters used to build template.
+     * Checks whether the template may read the param, so the param has to be computed.
      *
-     * @param element the element
-     * @return the default parameters
+     * @param template the template
+     * @param name     the param name
+     * @return the boolean
      */
-    protected Map<String, Object> getDefaultParameters(PomNamedTarget element) {
-        Map<String, Object> params = new HashMap<String, Object>();
-        Calendar calendar = Calendar.getInstance();
-        Date date = calendar.getTime();
-        SimpleDateFormat sdfMonthNameShort = new SimpleDateFormat("MMM");
-        SimpleDateFormat sdfMonthNameFull = new SimpleDateFormat("MMMM");
-        SimpleDateFormat sdfDayNameShort = new SimpleDateFormat("EEE");
-        SimpleDateFormat sdfDayNameFull = new SimpleDateFormat("EEEE");
-        SimpleDateFormat sdfYearFull = new SimpleDateFormat("yyyy");
-        // 下面这些都是intellij 内部的变量名称
-        params.put("DATE", DateFormatUtil.formatDate(date));
-        params.put("TIME", DateFormatUtil.formatTime(date));
-        params.put("YEAR", sdfYearFull.format(date));
-        params.put("MONTH", getCalendarValue(calendar, Calendar.MONTH));
-        params.put("MONTH_NAME_SHORT", sdfMonthNameShort.format(date));
-        params.put("MONTH_NAME_FULL", sdfMonthNameFull.format(date));
-        params.put("DAY", getCalendarValue(calendar, Calendar.DAY_OF_MONTH));
-        params.put("DAY_NAME_SHORT", sdfDayNameShort.format(date));
-        params.put("DAY_NAME_FULL", sdfDayNameFull.format(date));
-        params.put("HOUR", getCalendarValue(calendar, Calendar.HOUR_OF_DAY));
-        params.put("MINUTE", getCalendarValue(calendar, Calendar.MINUTE));
-        params.put("SECOND", getCalendarValue(calendar, Calendar.SECOND));
-
-        params.put("USER", SystemProperties.getUserName());
-        params.put("PRODUCT_NAME", ApplicationNamesInfo.getInstance().getFullProductName());
-        params.put("DS", "$"); // Dollar sign, strongly needed for PHP, JS, etc. See WI-8979
-        params.put("PROJECT_NAME", project.getName());
-
-        params.put("element", element);
-        params.put("name", getDocTemplateProcessor().buildDescription(element.getName(), true));
-        params.put("partName", getDocTemplateProcessor().buildPartialDescription(element.getName()));
-        params.put("splitNames", StringUtils.splitByCharacterTypeCamelCase(element.getName()));
-
-        params.put("NOW", DateFormatUtils.format(date, DATE_FORMAT));
-        params.put("AUTHOR", SystemProperties.getUserName());
-
-        // 处理变量
-        for (Map.Entry<String, String> variable : getDocTemplateManager().getVariables().entrySet()) {
-            params.put(variable.getKey(), variable.getValue());
-        }
-        // 处理version
-        String version = (String) params.get(VERSION);
-        params.put(VERSION, StringUtils.isEmpty(version) ? "1.0" : version);
-        String baseVersion = (String) params.get(BASE_VERSION);
-        params.put(BASE_VERSION, StringUtils.isEmpty(baseVersion) ? params.get(VERSION) : baseVersion);
+    protected static boolean isReferenced(@NotNull DocTemplate template, @NotNull String name) {
+        Set<String> variables = template.getReferencedVariables();
+        return variables == null || variables.contains(name);
+    }
 
-        return params;
+    private void putDefaultParameter(Map<String, Object> params, GeneratorContext context, String name,
+            Object value) {
+        // the user variables are put over the element params
+        if (!context.isVariable(name)) {
+            params.put(name, value);
+        }
     }
 
-    private PsiDocComment updateJavaDocAction(T element, PsiDocComment oldDocComment) {
+    private PsiDocComment updateJavaDocAction(T element, PsiDocComment oldDocComment, GeneratorContext context) {
         PsiDocComment result = null;
-        JavaDoc newJavaDoc = generateJavaDoc(element);
+        JavaDoc newJavaDoc = generateJavaDoc(element, context);
         JavaDoc oldJavaDoc = JavaDocUtils.createJavaDoc(oldDocComment);
         if (newJavaDoc != null) {
             newJavaDoc = JavaDocUtils.mergeJavaDocs(oldJavaDoc, newJavaDoc);
@@ -219,9 +190,9 @@ public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements
         return result;
     }
 
-    private PsiDocComment replaceJavaDocAction(T element) {
+    private PsiDocComment replaceJavaDocAction(T element, GeneratorContext context) {
         PsiDocComment result = null;
-        JavaDoc newJavaDoc = generateJavaDoc(element);
+        JavaDoc newJavaDoc = generateJavaDoc(element, context);
         if (newJavaDoc != null) {
             String javaDoc = newJavaDoc.toJavaDoc();
             result = psiElementFactory.createDocCommentFromText(javaDoc);
@@ -229,19 +200,14 @@ public abstract class AbstractJavaDocGenerator<T extends PsiElement> implements
         return result;
     }
 
-    private boolean checkModifiers(PsiModifierList modifiers, String modifier, Visibility visibility) {
-        JavaDocSettings configuration = JavaDocSettings.getInstance();
-        return modifiers != null && modifiers.hasModifierProperty(modifier) && configuration != null
-                && configuration.getGeneralSettings().getVisibilities().contains(visibility);
-    }
-
     /**
      * Generate java doc.
      *
      * @param element the Element
+     * @param context the context of the run
      * @return the Java doc
      */
     @Nullable
-    protected abstract JavaDoc generateJavaDoc(@NotNull T element);
+    protected abstract JavaDoc generateJavaDoc(@NotNull T element, @NotNull GeneratorContext context);
 
 }
@@ -1,17 +1,17 @@
 package com.github.setial.intellijjavadocs.generator.impl;
 
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
 import com.github.setial.intellijjavadocs.model.JavaDoc;
-import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
 import com.github.setial.intellijjavadocs.model.settings.Level;
+import com.github.setial.intellijjavadocs.model.settings.SettingsSnapshot;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.utils.JavaDocUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
-import freemarker.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * The type Class java doc generator.
@@ -31,15 +31,14 @@ public class ClassJavaDocGenerator extends AbstractJavaDocGenerator<PsiClass> {
 
     @Nullable
     @Override
-    protected JavaDoc generateJavaDoc(@NotNull PsiClass element) {
-        JavaDocSettings configuration = JavaDocSettings.getInstance();
-        if ((configuration != null && !configuration.getGeneralSettings().getLevels().contains(Level.TYPE))
-                || !shouldGenerate(element.getModifierList())) {
+    protected JavaDoc generateJavaDoc(@NotNull PsiClass element, @NotNull GeneratorContext context) {
+        SettingsSnapshot settings = context.getSettings();
+        if (!settings.isLevelEnabled(Level.TYPE) || !shouldGenerate(element.getModifierList(), context)) {
             return null;
         }
-        Template template = getDocTemplateManager().getClassTemplate(element);
-        Map<String, Object> params = getDefaultParameters(element);
-        if (!Objects.requireNonNull(configuration).getGeneralSettings().isSplittedClassName()) {
+        DocTemplate template = getDocTemplateManager().getClassTemplate(element);
+        Map<String, Object> params = getDefaultParameters(element, template, context);
+        if (!settings.isSplittedClassName()) {
             params.put("name", element.getName());
         }
         String javaDocText = getDocTemplateProcessor().merge(template, params);
@@ -1,15 +1,15 @@
 package com.github.setial.intellijjavadocs.generator.impl;
 
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
 import com.github.setial.intellijjavadocs.model.JavaDoc;
-import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
 import com.github.setial.intellijjavadocs.model.settings.Level;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.utils.JavaDocUtils;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiEnumConstant;
 import com.intellij.psi.PsiField;
-import freemarker.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,15 +33,13 @@ public class FieldJavaDocGenerator extends AbstractJavaDocGenerator<PsiField> {
 
     @Nullable
     @Override
-    protected JavaDoc generateJavaDoc(@NotNull PsiField element) {
-        JavaDocSettings configuration = JavaDocSettings.getInstance();
-        if (configuration != null && !configuration.getGeneralSettings().getLevels().contains(Level.FIELD)
-                || !shouldGenerate(element.getModifierList())) {
+    protected JavaDoc generateJavaDoc(@NotNull PsiField element, @NotNull GeneratorContext context) {
+        if (!context.getSettings().isLevelEnabled(Level.FIELD) || !shouldGenerate(element.getModifierList(), context)) {
             return null;
         }
-        Template template = getDocTemplateManager().getFieldTemplate(element);
-        Map<String, Object> params = getDefaultParameters(element);
-        PsiClass parent = findClassElement(element);
+        DocTemplate template = getDocTemplateManager().getFieldTemplate(element);
+        Map<String, Object> params = getDefaultParameters(element, template, context);
+        PsiClass parent = isReferenced(template, "typeName") ? findClassElement(element) : null;
         if (parent != null) {
             params.put("typeName", getDocTemplateProcessor().buildDescription(parent.getName(), false));
         }
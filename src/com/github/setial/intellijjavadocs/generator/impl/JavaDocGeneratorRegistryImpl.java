@@ -0,0 +1,128 @@
+package com.github.setial.intellijjavadocs.generator.impl;
+
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
+import com.github.setial.intellijjavadocs.generator.JavaDocGenerator;
+import com.github.setial.intellijjavadocs.generator.JavaDocGeneratorRegistry;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.javadoc.PsiDocComment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The type Java doc generator registry impl. The generators are created once per project and disposed together
+ * with it. The generator of the element class is resolved when the class is seen for the first time, so the lookup
+ * of the element is one map get.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class JavaDocGeneratorRegistryImpl implements JavaDocGeneratorRegistry, Disposable {
+
+    private volatile Dispatch dispatch;
+
+    /**
+     * Instantiates a new Java doc generator registry impl with the class, method and field generators.
+     *
+     * @param project the Project
+     */
+    public JavaDocGeneratorRegistryImpl(@NotNull Project project) {
+        Map<Class<?>, JavaDocGenerator<?>> generators = new LinkedHashMap<Class<?>, JavaDocGenerator<?>>();
+        generators.put(PsiClass.class, new ClassJavaDocGenerator(project));
+        generators.put(PsiMethod.class, new MethodJavaDocGenerator(project));
+        generators.put(PsiField.class, new FieldJavaDocGenerator(project));
+        dispatch = new Dispatch(generators);
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends PsiElement> JavaDocGenerator<T> getGenerator(@NotNull T element) {
+        return (JavaDocGenerator<T>) dispatch.getGenerator(element.getClass());
+    }
+
+    @Override
+    public synchronized <T extends PsiElement> void register(@NotNull Class<T> elementType,
+            @NotNull JavaDocGenerator<? super T> generator) {
+        Map<Class<?>, JavaDocGenerator<?>> generators =
+                new LinkedHashMap<Class<?>, JavaDocGenerator<?>>(dispatch.generators);
+        generators.put(elementType, generator);
+        // the classes resolved before may have the more specific kind now, so they are resolved again
+        dispatch = new Dispatch(generators);
+    }
+
+    @Override
+    public synchronized void dispose() {
+        dispatch = new Dispatch(Collections.<Class<?>, JavaDocGenerator<?>>emptyMap());
+    }
+
+    /**
+     * The registered generators and the generators resolved for the element classes by them. The instance is not
+     * changed by the registration, the new one replaces it, so the resolved generators are never stale.
+     */
+    private static class Dispatch {
+
+        private static final JavaDocGenerator<?> NO_GENERATOR = new JavaDocGenerator<PsiElement>() {
+            @Nullable
+            @Override
+            public PsiDocComment generate(@NotNull PsiElement element, @NotNull GeneratorContext context) {
+                return null;
+            }
+        };
+
+        private final Map<Class<?>, JavaDocGenerator<?>> generators;
+
+        private final ConcurrentMap<Class<?>, JavaDocGenerator<?>> resolved =
+                new ConcurrentHashMap<Class<?>, JavaDocGenerator<?>>();
+
+        private Dispatch(Map<Class<?>, JavaDocGenerator<?>> generators) {
+            this.generators = Collections.unmodifiableMap(generators);
+        }
+
+        private JavaDocGenerator<?> getGenerator(Class<?> elementClass) {
+            JavaDocGenerator<?> generator = resolved.get(elementClass);
+            if (generator == null) {
+                generator = resolve(elementClass);
+                resolved.putIfAbsent(elementClass, generator);
+            }
+            return generator == NO_GENERATOR ? null : generator;
+        }
+
+        private JavaDocGenerator<?> resolve(Class<?> elementClass) {
+            // the element kinds are the interfaces, the most specific registered one wins
+            Class<?> kind = null;
+            Set<Class<?>> visited = new HashSet<Class<?>>();
+            Deque<Class<?>> types = new ArrayDeque<Class<?>>();
+            types.add(elementClass);
+            while (!types.isEmpty()) {
+                Class<?> type = types.poll();
+                if (!visited.add(type)) {
+                    continue;
+                }
+                if (generators.containsKey(type) && (kind == null || kind.isAssignableFrom(type))) {
+                    kind = type;
+                }
+                if (type.getSuperclass() != null) {
+                    types.add(type.getSuperclass());
+                }
+                Collections.addAll(types, type.getInterfaces());
+            }
+            return kind != null ? generators.get(kind) : NO_GENERATOR;
+        }
+
+    }
+
+}
@@ -1,17 +1,19 @@
 package com.github.setial.intellijjavadocs.generator.impl;
 
+import com.github.setial.intellijjavadocs.generator.GeneratorContext;
+import com.github.setial.intellijjavadocs.generator.OverrideIndex;
 import com.github.setial.intellijjavadocs.model.JavaDoc;
-import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
 import com.github.setial.intellijjavadocs.model.settings.Level;
+import com.github.setial.intellijjavadocs.model.settings.SettingsSnapshot;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.utils.JavaDocUtils;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiJavaCodeReferenceElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiType;
 import com.intellij.psi.PsiTypeElement;
-import freemarker.template.Template;
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -36,45 +38,60 @@ public class MethodJavaDocGenerator extends AbstractJavaDocGenerator<PsiMethod>
 
     @Nullable
     @Override
-    protected JavaDoc generateJavaDoc(@NotNull PsiMethod element) {
-        if (!shouldGenerate(element) || !shouldGenerate(element.getModifierList())) {
+    protected JavaDoc generateJavaDoc(@NotNull PsiMethod element, @NotNull GeneratorContext context) {
+        if (!shouldGenerate(element, context) || !shouldGenerate(element.getModifierList(), context)) {
             return null;
         }
-        Template template = getDocTemplateManager().getMethodTemplate(element);
-        Map<String, String> paramNames = new HashMap<String, String>();
-        for (PsiParameter parameter : element.getParameterList().getParameters()) {
-            paramNames.put(parameter.getName(), getDocTemplateProcessor().buildDescription(parameter.getName(), false));
-        }
-        Map<String, String> exceptionNames = new HashMap<String, String>();
-        for (PsiJavaCodeReferenceElement exception : element.getThrowsList().getReferenceElements()) {
-            exceptionNames.put(exception.getReferenceName(),
-                    getDocTemplateProcessor().buildDescription(exception.getReferenceName(), false));
-        }
-        String returnDescription = StringUtils.EMPTY;
+        DocTemplate template = getDocTemplateManager().getMethodTemplate(element);
+        Map<String, Object> params = getDefaultParameters(element, template, context);
         PsiTypeElement returnElement = element.getReturnTypeElement();
         if (returnElement != null) {
-            returnDescription = returnElement.getText();
+            if (isReferenced(template, "isNotVoid")) {
+                params.put("isNotVoid", !returnElement.getType().isAssignableFrom(PsiType.VOID));
+            }
+            if (isReferenced(template, "return")) {
+                params.put("return", getDocTemplateProcessor().buildDescription(returnElement.getText(), false));
+            }
         }
-        Map<String, Object> params = getDefaultParameters(element);
-        if (returnElement != null) {
-            params.put("isNotVoid", !returnElement.getType().isAssignableFrom(PsiType.VOID));
-            params.put("return", getDocTemplateProcessor().buildDescription(returnDescription, false));
+        if (isReferenced(template, "paramNames")) {
+            Map<String, String> paramNames = new HashMap<String, String>();
+            for (PsiParameter parameter : element.getParameterList().getParameters()) {
+                paramNames.put(parameter.getName(),
+                        getDocTemplateProcessor().buildDescription(parameter.getName(), false));
+            }
+            params.put("paramNames", paramNames);
+        }
+        if (isReferenced(template, "exceptionNames")) {
+            Map<String, String> exceptionNames = new HashMap<String, String>();
+            for (PsiJavaCodeReferenceElement exception : element.getThrowsList().getReferenceElements()) {
+                exceptionNames.put(exception.getReferenceName(),
+                        getDocTemplateProcessor().buildDescription(exception.getReferenceName(), false));
+            }
+            params.put("exceptionNames", exceptionNames);
+        }
+        if (isReferenced(template, "fieldName")) {
+            params.put("fieldName", getDocTemplateProcessor().buildFieldDescription(element.getName()));
         }
-        params.put("paramNames", paramNames);
-        params.put("exceptionNames", exceptionNames);
-        params.put("fieldName", getDocTemplateProcessor().buildFieldDescription(element.getName()));
 
         String javaDocText = getDocTemplateProcessor().merge(template, params);
         return JavaDocUtils.toJavaDoc(javaDocText, getPsiElementFactory());
     }
 
-    private boolean shouldGenerate(@NotNull PsiMethod element) {
-        PsiMethod[] superMethods = element.findSuperMethods();
-        JavaDocSettings configuration = JavaDocSettings.getInstance();
-        boolean overriddenMethods = superMethods.length > 0 && configuration != null
-                && !configuration.getGeneralSettings().isOverriddenMethods();
-        boolean level = configuration != null && configuration.getGeneralSettings().getLevels().contains(Level.METHOD);
-        return !level || !overriddenMethods;
+    private boolean shouldGenerate(@NotNull PsiMethod element, @NotNull GeneratorContext context) {
+        SettingsSnapshot settings = context.getSettings();
+        // the super methods matter only if the overridden methods are skipped
+        if (!settings.isLevelEnabled(Level.METHOD) || settings.isOverriddenMethods()) {
+            return true;
+        }
+        return !isOverriding(element);
+    }
+
+    private boolean isOverriding(PsiMethod element) {
+        PsiClass containingClass = element.getContainingClass();
+        if (containingClass == null) {
+            return element.findSuperMethods().length > 0;
+        }
+        return OverrideIndex.getInstance(containingClass).isOverriding(element);
     }
 
 }
@@ -54,6 +54,8 @@ public class JavaDocSettings implements Serializable {
 
     private TemplateSettings templateSettings = new TemplateSettings();
 
+    private volatile SettingsSnapshot snapshot = new SettingsSnapshot(generalSettings);
+
     /**
      * Instantiates a new Java doc settings object.
      */
@@ -135,6 +137,22 @@ public class JavaDocSettings implements Serializable {
         return generalSettings;
     }
 
+    /**
+     * Gets the snapshot of the general settings published last.
+     *
+     * @return the settings snapshot
+     */
+    public SettingsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes the snapshot of the current general settings, it is called when the settings are changed.
+     */
+    public void publishSnapshot() {
+        snapshot = new SettingsSnapshot(generalSettings);
+    }
+
     /**
      * Gets template settings.
      *
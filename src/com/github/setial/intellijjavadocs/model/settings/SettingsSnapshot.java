@@ -0,0 +1,123 @@
+package com.github.setial.intellijjavadocs.model.settings;
+
+import com.intellij.psi.PsiModifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * The immutable copy of the general settings which the generators read. The copy is published as a whole when the
+ * settings are loaded or applied, so the generation run which took it sees the consistent settings on any thread,
+ * while the settings form keeps changing its own model.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class SettingsSnapshot {
+
+    private final Mode mode;
+
+    private final EnumSet<Level> levels;
+
+    private final EnumSet<Visibility> visibilities;
+
+    private final List<String> visibleModifiers;
+
+    private final boolean overriddenMethods;
+
+    private final boolean splittedClassName;
+
+    /**
+     * Instantiates a new Settings snapshot of the general settings.
+     *
+     * @param generalSettings the general settings
+     */
+    SettingsSnapshot(@NotNull GeneralSettings generalSettings) {
+        mode = generalSettings.getMode();
+        levels = copyOf(generalSettings.getLevels(), Level.class);
+        visibilities = copyOf(generalSettings.getVisibilities(), Visibility.class);
+        overriddenMethods = generalSettings.isOverriddenMethods();
+        splittedClassName = generalSettings.isSplittedClassName();
+        List<String> modifiers = new ArrayList<String>(4);
+        addModifier(modifiers, Visibility.PUBLIC, PsiModifier.PUBLIC);
+        addModifier(modifiers, Visibility.PROTECTED, PsiModifier.PROTECTED);
+        addModifier(modifiers, Visibility.DEFAULT, PsiModifier.PACKAGE_LOCAL);
+        addModifier(modifiers, Visibility.PRIVATE, PsiModifier.PRIVATE);
+        visibleModifiers = Collections.unmodifiableList(modifiers);
+    }
+
+    /**
+     * Gets javadoc update mode.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Checks whether javadoc is generated on the level.
+     *
+     * @param level the level
+     * @return the boolean
+     */
+    public boolean isLevelEnabled(@NotNull Level level) {
+        return levels.contains(level);
+    }
+
+    /**
+     * Checks whether javadoc is generated on the visibility.
+     *
+     * @param visibility the visibility
+     * @return the boolean
+     */
+    public boolean isVisibilityEnabled(@NotNull Visibility visibility) {
+        return visibilities.contains(visibility);
+    }
+
+    /**
+     * Gets the access modifiers of the enabled visibilities, the element having any of them gets javadoc.
+     *
+     * @return the visible modifiers
+     */
+    @NotNull
+    public List<String> getVisibleModifiers() {
+        return visibleModifiers;
+    }
+
+    /**
+     * Gets flag that shows whether javadoc should be generated on overridden methods.
+     *
+     * @return the flag value
+     */
+    public boolean isOverriddenMethods() {
+        return overriddenMethods;
+    }
+
+    /**
+     * Is splitted class name boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isSplittedClassName() {
+        return splittedClassName;
+    }
+
+    private void addModifier(List<String> modifiers, Visibility visibility, String modifier) {
+        if (visibilities.contains(visibility)) {
+            modifiers.add(modifier);
+        }
+    }
+
+    private static <E extends Enum<E>> EnumSet<E> copyOf(Collection<E> values, Class<E> type) {
+        EnumSet<E> result = EnumSet.noneOf(type);
+        if (values != null) {
+            result.addAll(values);
+        }
+        return result;
+    }
+
+}
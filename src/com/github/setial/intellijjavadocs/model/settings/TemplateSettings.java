@@ -1,5 +1,7 @@
 package com.github.setial.intellijjavadocs.model.settings;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -10,6 +12,28 @@ import java.util.Map;
  */
 public class TemplateSettings {
 
+    // the legacy selector of the default template and the predicate which replaced it
+    private static final Map<String, String> CLASS_MIGRATIONS = createMigrations(
+            "^.*(public|protected|private)*.+interface\\s+\\w+.*", "{kind=interface|annotation}",
+            "^.*(public|protected|private)*.+enum\\s+\\w+.*", "{kind=enum}",
+            "^.*(public|protected|private)*.+class\\s+\\w+.*", "{kind=class}",
+            ".+", "{}");
+
+    private static final Map<String, String> FIELD_MIGRATIONS = createMigrations(
+            "^.*(public|protected|private)*.+(final)?\\s+static.*(\\w\\s\\w)+.+", "{kind=field static}",
+            "^.*(public|protected|private)*.*(\\w\\s\\w)+.+", "{kind=field}",
+            ".+", "{}");
+
+    private static final Map<String, String> METHOD_MIGRATIONS = createMigrations(
+            "^.*(public|protected|private)*\\s*.*(\\w(\\s*<.+>)*)+\\s+get\\w+\\s*\\(.*\\).+", "{name=get?*}",
+            "^.*(public|protected|private)*\\s*.*(void|\\w(\\s*<.+>)*)+\\s+set\\w+\\s*\\(.*\\).+", "{name=set?*}",
+            "^.*((public\\s+static)|(static\\s+public))\\s+void\\s+main\\s*\\(\\s*String\\s*(\\[\\s*\\]|\\.\\.\\.)"
+                    + "\\s+\\w+\\s*\\).+",
+            "{visibility=public static return=void name=main params=1 paramTypes=String[]|String...}",
+            ".+", "{}");
+
+    private static final Map<String, String> CONSTRUCTOR_MIGRATIONS = createMigrations(".+", "{}");
+
     private Map<String, String> classTemplates = new LinkedHashMap<String, String>();
 
     private Map<String, String> fieldTemplates = new LinkedHashMap<String, String>();
@@ -109,4 +133,40 @@ public class TemplateSettings {
     public void setVariables(Map<String, String> variables) {
         this.variables = variables;
     }
+
+    /**
+     * Replaces the selectors of the default templates shipped before the predicates with the predicates which
+     * replaced them. The templates of such selectors and the order of the templates are kept. The stored settings
+     * contain no legacy selectors after that, so the migration is done once.
+     */
+    public void migrateLegacySelectors() {
+        classTemplates = migrate(classTemplates, CLASS_MIGRATIONS);
+        fieldTemplates = migrate(fieldTemplates, FIELD_MIGRATIONS);
+        methodTemplates = migrate(methodTemplates, METHOD_MIGRATIONS);
+        constructorTemplates = migrate(constructorTemplates, CONSTRUCTOR_MIGRATIONS);
+    }
+
+    private static Map<String, String> migrate(Map<String, String> templates, Map<String, String> migrations) {
+        if (templates == null) {
+            return null;
+        }
+        Map<String, String> result = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> entry : templates.entrySet()) {
+            String selector = migrations.containsKey(entry.getKey()) ? migrations.get(entry.getKey()) : entry.getKey();
+            // the same predicate met again is never selected, the first template of the selector is kept
+            if (!result.containsKey(selector)) {
+                result.put(selector, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> createMigrations(String... selectors) {
+        Map<String, String> result = new HashMap<String, String>();
+        for (int i = 0; i < selectors.length; i += 2) {
+            result.put(selectors[i], selectors[i + 1]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.github.setial.intellijjavadocs.operation;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.javadoc.PsiDocComment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The change of the javadoc of one element. The edit is computed under the read action, so it can be done off the
+ * UI thread, and it is applied later by {@link JavaDocWriter#apply(java.util.List)} under the write action.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class JavaDocEdit {
+
+    private final PsiElement element;
+
+    private final PsiDocComment javaDoc;
+
+    /**
+     * Instantiates a new Java doc edit.
+     *
+     * @param element the element
+     * @param javaDoc the java doc to place before the element or null to remove the javadoc of the element
+     */
+    public JavaDocEdit(@NotNull PsiElement element, @Nullable PsiDocComment javaDoc) {
+        this.element = element;
+        this.javaDoc = javaDoc;
+    }
+
+    /**
+     * Gets the element.
+     *
+     * @return the element
+     */
+    @NotNull
+    public PsiElement getElement() {
+        return element;
+    }
+
+    /**
+     * Gets the java doc.
+     *
+     * @return the java doc or null if the javadoc is removed
+     */
+    @Nullable
+    public PsiDocComment getJavaDoc() {
+        return javaDoc;
+    }
+
+}
@@ -1,16 +1,18 @@
 package com.github.setial.intellijjavadocs.operation;
 
-import com.intellij.openapi.components.ApplicationComponent;
+import com.github.setial.intellijjavadocs.exception.FileNotValidException;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.javadoc.PsiDocComment;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 /**
  * The interface Java doc writer.
  *
  * @author Sergey Timofiychuk
  */
-public interface JavaDocWriter extends ApplicationComponent {
+public interface JavaDocWriter {
 
     /**
      * The constant WRITE_JAVADOC_COMMAND_NAME.
@@ -36,4 +38,15 @@ public interface JavaDocWriter extends ApplicationComponent {
      */
     void remove(@NotNull PsiElement beforeElement);
 
+    /**
+     * Applies the edits of the elements of one file. The file access is checked once and the edits are done in one
+     * write command, so they are also undone as one.
+     *
+     * @param edits the edits of the elements of one file
+     * @return the number of the changed elements, the edits of the elements invalidated meanwhile and the edits
+     *         which change nothing are not counted
+     * @throws FileNotValidException if the file is not valid or can not be made writable, the caller reports it
+     */
+    int apply(@NotNull List<JavaDocEdit> edits) throws FileNotValidException;
+
 }
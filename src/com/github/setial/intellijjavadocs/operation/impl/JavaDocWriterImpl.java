@@ -2,6 +2,7 @@ package com.github.setial.intellijjavadocs.operation.impl;
 
 import com.github.setial.intellijjavadocs.exception.FileNotValidException;
 import com.github.setial.intellijjavadocs.exception.NotFoundElementException;
+import com.github.setial.intellijjavadocs.operation.JavaDocEdit;
 import com.github.setial.intellijjavadocs.operation.JavaDocWriter;
 import com.intellij.openapi.application.Result;
 import com.intellij.openapi.application.RunResult;
@@ -22,6 +23,7 @@ import com.intellij.psi.util.PsiUtilBase;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collections;
+import java.util.List;
 
 /**
  * The type Java doc writer impl.
@@ -37,21 +39,6 @@ public class JavaDocWriterImpl implements JavaDocWriter {
 
     private static final Logger LOGGER = Logger.getInstance(JavaDocWriterImpl.class);
 
-    @Override
-    public void initComponent() {
-    }
-
-    @Override
-    public void disposeComponent() {
-    }
-
-    @NotNull
-    @Override
-    public String getComponentName() {
-        return COMPONENT_NAME;
-
-    }
-
     @Override
     public void write(@NotNull PsiDocComment javaDoc, @NotNull PsiElement beforeElement) {
         try {
@@ -90,6 +77,26 @@ public class JavaDocWriterImpl implements JavaDocWriter {
         }
     }
 
+    @Override
+    public int apply(@NotNull List<JavaDocEdit> edits) throws FileNotValidException {
+        if (edits.isEmpty()) {
+            return 0;
+        }
+        PsiElement firstElement = edits.get(0).getElement();
+        // the batch reports the files it could not write at the end, so the failure is not shown here
+        checkFilesAccess(firstElement);
+
+        WriteCommandAction<Integer> command = new ApplyJavaDocEditsActionImpl(firstElement, edits);
+        RunResult<Integer> result = command.execute();
+        if (result.hasException()) {
+            LOGGER.error(result.getThrowable());
+            Messages.showErrorDialog("Javadocs plugin is not available, cause: " + result.getThrowable().getMessage(),
+                    "Javadocs plugin");
+        }
+        Integer applied = result.getResultObject();
+        return applied != null ? applied : 0;
+    }
+
     /**
      * The type Write command action impl.
      *
@@ -119,27 +126,7 @@ public class JavaDocWriterImpl implements JavaDocWriter {
             if (javaDoc == null) {
                 return;
             }
-            if (element.getFirstChild() instanceof PsiDocComment) {
-                replaceJavaDoc(element, javaDoc);
-            } else {
-                addJavaDoc(element, javaDoc);
-            }
-            ensureWhitespaceAfterJavaDoc(element);
-            reformatJavaDoc(element);
-        }
-
-        private void ensureWhitespaceAfterJavaDoc(PsiElement element) {
-            // this method is required to create well formatted javadocs in enums
-            PsiElement firstChild = element.getFirstChild();
-            if (!PsiDocComment.class.isAssignableFrom(firstChild.getClass())) {
-                return;
-            }
-            PsiElement nextElement = firstChild.getNextSibling();
-            if (PsiWhiteSpace.class.isAssignableFrom(nextElement.getClass())) {
-                return;
-            }
-            pushPostponedChanges(element);
-            element.getNode().addChild(new PsiWhiteSpaceImpl("\n"), nextElement.getNode());
+            writeJavaDoc(element, javaDoc);
         }
     }
 
@@ -160,13 +147,86 @@ public class JavaDocWriterImpl implements JavaDocWriter {
 
         @Override
         protected void run(@NotNull Result result) throws Throwable {
-            if (element.getFirstChild() instanceof PsiDocComment) {
-                deleteJavaDoc(this.element);
+            removeJavaDoc(element);
+        }
+
+    }
+
+    private static class ApplyJavaDocEditsActionImpl extends WriteCommandAction<Integer> {
+
+        private List<JavaDocEdit> edits;
+
+        /**
+         * Instantiates a new Apply java doc edits action impl.
+         *
+         * @param element the first element of the edits
+         * @param edits   the edits of the elements of one file
+         */
+        protected ApplyJavaDocEditsActionImpl(@NotNull PsiElement element, @NotNull List<JavaDocEdit> edits) {
+            super(element.getProject(), WRITE_JAVADOC_COMMAND_NAME, WRITE_JAVADOC_COMMAND_GROUP,
+                    element.getContainingFile());
+            this.edits = edits;
+        }
+
+        @Override
+        protected void run(@NotNull Result<Integer> result) throws Throwable {
+            int applied = 0;
+            for (JavaDocEdit edit : edits) {
+                PsiElement element = edit.getElement();
+                if (!element.isValid()) {
+                    continue;
+                }
+                boolean changed = edit.getJavaDoc() != null
+                        ? writeJavaDoc(element, edit.getJavaDoc())
+                        : removeJavaDoc(element);
+                if (changed) {
+                    applied++;
+                }
             }
+            result.setResult(applied);
         }
 
     }
 
+    // returns whether the element is changed, the javadoc equal to the present one is not written again
+    private static boolean writeJavaDoc(PsiElement theElement, PsiDocComment theJavaDoc) {
+        PsiElement firstChild = theElement.getFirstChild();
+        if (firstChild instanceof PsiDocComment) {
+            if (firstChild.getText().equals(theJavaDoc.getText())) {
+                return false;
+            }
+            replaceJavaDoc(theElement, theJavaDoc);
+        } else {
+            addJavaDoc(theElement, theJavaDoc);
+        }
+        ensureWhitespaceAfterJavaDoc(theElement);
+        reformatJavaDoc(theElement);
+        return true;
+    }
+
+    // returns whether the element had the javadoc to delete
+    private static boolean removeJavaDoc(PsiElement theElement) {
+        if (theElement.getFirstChild() instanceof PsiDocComment) {
+            deleteJavaDoc(theElement);
+            return true;
+        }
+        return false;
+    }
+
+    private static void ensureWhitespaceAfterJavaDoc(PsiElement element) {
+        // this method is required to create well formatted javadocs in enums
+        PsiElement firstChild = element.getFirstChild();
+        if (!PsiDocComment.class.isAssignableFrom(firstChild.getClass())) {
+            return;
+        }
+        PsiElement nextElement = firstChild.getNextSibling();
+        if (PsiWhiteSpace.class.isAssignableFrom(nextElement.getClass())) {
+            return;
+        }
+        pushPostponedChanges(element);
+        element.getNode().addChild(new PsiWhiteSpaceImpl("\n"), nextElement.getNode());
+    }
+
     private static void deleteJavaDoc(PsiElement theElement) {
         pushPostponedChanges(theElement);
         theElement.getFirstChild().delete();
@@ -0,0 +1,53 @@
+package com.github.setial.intellijjavadocs.template;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The compiled javadoc template. The template is compiled by the first {@link TemplateEngine} which supports its
+ * source.
+ *
+ * @author Sergey Timofiychuk
+ */
+public interface DocTemplate {
+
+    /**
+     * Gets the template name.
+     *
+     * @return the name
+     */
+    @NotNull
+    String getName();
+
+    /**
+     * Gets the template source as it was written by the user.
+     *
+     * @return the source
+     */
+    @NotNull
+    String getSource();
+
+    /**
+     * Gets the names of the params the template may read, found when the template was compiled. The params which
+     * are not in the set do not need to be computed.
+     *
+     * @return the param names, or null if any param may be read
+     */
+    @Nullable
+    Set<String> getReferencedVariables();
+
+    /**
+     * Renders the template.
+     *
+     * @param params the params
+     * @param out    the writer to render the template to
+     * @throws IOException the io exception
+     */
+    void process(@NotNull Map<String, Object> params, @NotNull Writer out) throws IOException;
+
+}
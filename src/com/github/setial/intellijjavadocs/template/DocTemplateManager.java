@@ -1,10 +1,8 @@
 package com.github.setial.intellijjavadocs.template;
 
-import com.intellij.openapi.components.ApplicationComponent;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import freemarker.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -15,7 +13,7 @@ import java.util.Map;
  *
  * @author Sergey Timofiychuk
  */
-public interface DocTemplateManager extends ApplicationComponent {
+public interface DocTemplateManager {
 
     /**
      * The constant COMPONENT_NAME.
@@ -29,7 +27,7 @@ public interface DocTemplateManager extends ApplicationComponent {
      * @return the Class template
      */
     @Nullable
-    Template getClassTemplate(@NotNull PsiClass classElement);
+    DocTemplate getClassTemplate(@NotNull PsiClass classElement);
 
     /**
      * Gets class templates.
@@ -53,7 +51,7 @@ public interface DocTemplateManager extends ApplicationComponent {
      * @return the Method template
      */
     @Nullable
-    Template getMethodTemplate(@NotNull PsiMethod methodElement);
+    DocTemplate getMethodTemplate(@NotNull PsiMethod methodElement);
 
     /**
      * Gets method templates.
@@ -92,7 +90,7 @@ public interface DocTemplateManager extends ApplicationComponent {
      * @return the Field template
      */
     @Nullable
-    Template getFieldTemplate(@NotNull PsiField psiField);
+    DocTemplate getFieldTemplate(@NotNull PsiField psiField);
 
     /**
      * Gets field templates.
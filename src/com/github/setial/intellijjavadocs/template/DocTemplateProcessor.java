@@ -1,7 +1,6 @@
 package com.github.setial.intellijjavadocs.template;
 
 import com.intellij.openapi.components.ProjectComponent;
-import freemarker.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -22,12 +21,12 @@ public interface DocTemplateProcessor extends ProjectComponent {
     /**
      * Merge.
      *
-     * @param template the Template
+     * @param template the template
      * @param params   the Params
      * @return the String
      */
     @NotNull
-    String merge(@NotNull Template template, @NotNull Map<String, Object> params);
+    String merge(@NotNull DocTemplate template, @NotNull Map<String, Object> params);
 
     /**
      * Builds the description.
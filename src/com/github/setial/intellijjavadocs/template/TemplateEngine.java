@@ -0,0 +1,26 @@
+package com.github.setial.intellijjavadocs.template;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * The backend which compiles the javadoc templates.
+ *
+ * @author Sergey Timofiychuk
+ */
+public interface TemplateEngine {
+
+    /**
+     * Compiles the template.
+     *
+     * @param name   the template name
+     * @param source the template source
+     * @return the compiled template or null if the engine does not support the source
+     * @throws IOException the io exception
+     */
+    @Nullable
+    DocTemplate compile(@NotNull String name, @NotNull String source) throws IOException;
+
+}
@@ -0,0 +1,405 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.template.DocTemplate;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The template compiled by {@link CompactTemplateEngine} into the flat instruction array. The instructions are run
+ * in a loop, the values are read from the params, maps, arrays and lists directly, and from the PSI elements by
+ * {@link PsiElementModel#getPropertyValue(PsiElement, String)}, without reflection.
+ * <p>
+ * The values are resolved as FreeMarker resolves them: a missing value can only be tested by <code>??</code> and
+ * <code>?has_content</code>, a condition must be a boolean, and only strings can be printed.
+ *
+ * @author Sergey Timofiychuk
+ */
+final class CompactTemplate implements DocTemplate {
+
+    /**
+     * Writes the text operand.
+     */
+    static final int TEXT = 0;
+
+    /**
+     * Prints the value of the path operand.
+     */
+    static final int PRINT = 1;
+
+    /**
+     * Jumps to the target if the condition operand is false.
+     */
+    static final int BRANCH = 2;
+
+    /**
+     * Jumps to the target.
+     */
+    static final int JUMP = 3;
+
+    /**
+     * Starts the loop over the items of the loop operand, jumps to the target if there are no items.
+     */
+    static final int LIST = 4;
+
+    /**
+     * Moves the loop of the slot operand to the next item and jumps to the target, or leaves the loop.
+     */
+    static final int NEXT = 5;
+
+    private final String name;
+
+    private final String source;
+
+    private final int[] codes;
+
+    private final Object[] operands;
+
+    private final int[] targets;
+
+    private final int slotCount;
+
+    private final Set<String> referencedVariables;
+
+    /**
+     * Instantiates a new Compact template.
+     *
+     * @param name      the name
+     * @param source    the source
+     * @param codes     the instruction codes
+     * @param operands  the instruction operands
+     * @param targets   the jump targets of the instructions
+     * @param slotCount the number of the loop variables visible at once
+     * @param variables the names of the params read by the paths
+     */
+    CompactTemplate(String name, String source, int[] codes, Object[] operands, int[] targets, int slotCount,
+            Set<String> variables) {
+        this.name = name;
+        this.source = source;
+        this.codes = codes;
+        this.operands = operands;
+        this.targets = targets;
+        this.slotCount = slotCount;
+        this.referencedVariables = variables;
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @NotNull
+    @Override
+    public Set<String> getReferencedVariables() {
+        return referencedVariables;
+    }
+
+    @Override
+    public void process(@NotNull Map<String, Object> params, @NotNull Writer out) throws IOException {
+        Object[] slots = new Object[slotCount];
+        Object[][] items = new Object[slotCount][];
+        int[] indexes = new int[slotCount];
+        int pc = 0;
+        while (pc < codes.length) {
+            switch (codes[pc]) {
+                case TEXT:
+                    out.write((String) operands[pc]);
+                    pc++;
+                    break;
+                case PRINT:
+                    out.write(toText((Path) operands[pc], params, slots));
+                    pc++;
+                    break;
+                case BRANCH:
+                    pc = ((Condition) operands[pc]).test(params, slots) ? pc + 1 : targets[pc];
+                    break;
+                case JUMP:
+                    pc = targets[pc];
+                    break;
+                case LIST:
+                    Loop loop = (Loop) operands[pc];
+                    Object[] loopItems = toItems(loop.sequence, params, slots);
+                    if (loopItems.length == 0) {
+                        pc = targets[pc];
+                    } else {
+                        items[loop.slot] = loopItems;
+                        indexes[loop.slot] = 0;
+                        slots[loop.slot] = loopItems[0];
+                        pc++;
+                    }
+                    break;
+                case NEXT:
+                    int slot = (Integer) operands[pc];
+                    int next = ++indexes[slot];
+                    if (next < items[slot].length) {
+                        slots[slot] = items[slot][next];
+                        pc = targets[pc];
+                    } else {
+                        items[slot] = null;
+                        slots[slot] = null;
+                        pc++;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown instruction " + codes[pc] + " in template " + name);
+            }
+        }
+    }
+
+    private String toText(Path path, Map<String, Object> params, Object[] slots) {
+        Object value = path.evaluate(params, slots);
+        if (value == null) {
+            throw new IllegalStateException("The value " + path + " is missing in template " + name);
+        }
+        // printed as the FreeMarker scalar of the wrapped value is, e.g. the psi element prints its string form
+        if (value instanceof Number || value instanceof Boolean || value instanceof Object[]
+                || value instanceof Collection || value instanceof Map) {
+            throw new IllegalStateException("The value " + path + " is not a string in template " + name);
+        }
+        return String.valueOf(value);
+    }
+
+    private Object[] toItems(Path path, Map<String, Object> params, Object[] slots) {
+        Object value = path.evaluate(params, slots);
+        if (value instanceof Object[]) {
+            return (Object[]) value;
+        } else if (value instanceof Collection) {
+            return ((Collection<?>) value).toArray();
+        } else if (value == null) {
+            throw new IllegalStateException("The value " + path + " is missing in template " + name);
+        }
+        throw new IllegalStateException("The value " + path + " is not a sequence in template " + name);
+    }
+
+    /**
+     * The path to the value: the param or loop variable followed by the property, getter and key steps.
+     */
+    static final class Path {
+
+        /**
+         * The property step, e.g. <code>.name</code>.
+         */
+        static final int PROPERTY = 0;
+
+        /**
+         * The getter step, e.g. <code>.getName()</code>, the key is the property name.
+         */
+        static final int GETTER = 1;
+
+        /**
+         * The key step, e.g. <code>[0]</code>, <code>['name']</code> or <code>[parameter.name]</code>.
+         */
+        static final int KEY = 2;
+
+        private final String text;
+
+        private final String root;
+
+        private final int slot;
+
+        private final int[] steps;
+
+        private final Object[] keys;
+
+        /**
+         * Instantiates a new Path.
+         *
+         * @param text  the source text of the path
+         * @param root  the param name
+         * @param slot  the slot of the loop variable or -1 if the root is a param
+         * @param steps the step kinds
+         * @param keys  the step keys: property names, constant keys or the paths of the keys
+         */
+        Path(String text, String root, int slot, int[] steps, Object[] keys) {
+            this.text = text;
+            this.root = root;
+            this.slot = slot;
+            this.steps = steps;
+            this.keys = keys;
+        }
+
+        /**
+         * Evaluates the path. Only the last step may be missing, as in FreeMarker.
+         *
+         * @param params the params
+         * @param slots  the values of the loop variables
+         * @return the value or null if it is missing
+         */
+        Object evaluate(Map<String, Object> params, Object[] slots) {
+            Object value = slot < 0 ? params.get(root) : slots[slot];
+            for (int i = 0; i < steps.length; i++) {
+                if (value == null) {
+                    throw new IllegalStateException("The value " + text + " is missing");
+                }
+                Object key = keys[i];
+                if (key instanceof Path) {
+                    key = ((Path) key).evaluate(params, slots);
+                    if (key == null) {
+                        throw new IllegalStateException("The key " + keys[i] + " is missing");
+                    }
+                }
+                value = step(value, steps[i], key);
+            }
+            return value;
+        }
+
+        private Object step(Object target, int step, Object key) {
+            if (key instanceof Number) {
+                return getItem(target, ((Number) key).intValue());
+            }
+            if (!(key instanceof String)) {
+                throw new IllegalStateException("The key of " + text + " is not a string or number");
+            }
+            if (target instanceof Map && step != GETTER) {
+                return ((Map<?, ?>) target).get(key);
+            }
+            if (target instanceof PsiElement) {
+                Object value = PsiElementModel.getPropertyValue((PsiElement) target, (String) key);
+                if (value != PsiElementModel.UNKNOWN_PROPERTY) {
+                    return value;
+                }
+                if (step == GETTER) {
+                    throw new IllegalStateException("The method of " + text + " is missing");
+                }
+                return null;
+            }
+            throw new IllegalStateException("The value " + text + " has no property " + key);
+        }
+
+        private Object getItem(Object target, int index) {
+            if (target instanceof Object[]) {
+                Object[] array = (Object[]) target;
+                if (index >= 0 && index < array.length) {
+                    return array[index];
+                }
+            } else if (target instanceof List) {
+                List<?> list = (List<?>) target;
+                if (index >= 0 && index < list.size()) {
+                    return list.get(index);
+                }
+            } else {
+                throw new IllegalStateException("The value " + text + " is not a sequence");
+            }
+            throw new IllegalStateException("The index " + index + " is out of bounds in " + text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * The condition of the <code>if</code> directives.
+     */
+    static final class Condition {
+
+        /**
+         * Tests the boolean value.
+         */
+        static final int VALUE = 0;
+
+        /**
+         * Tests if the value exists, <code>??</code>.
+         */
+        static final int EXISTS = 1;
+
+        /**
+         * Tests if the value has content, <code>?has_content</code>.
+         */
+        static final int HAS_CONTENT = 2;
+
+        private final Path path;
+
+        private final int test;
+
+        private final boolean negated;
+
+        /**
+         * Instantiates a new Condition.
+         *
+         * @param path    the path
+         * @param test    the test
+         * @param negated the negated
+         */
+        Condition(Path path, int test, boolean negated) {
+            this.path = path;
+            this.test = test;
+            this.negated = negated;
+        }
+
+        /**
+         * Evaluates the condition.
+         *
+         * @param params the params
+         * @param slots  the values of the loop variables
+         * @return the boolean
+         */
+        boolean test(Map<String, Object> params, Object[] slots) {
+            Object value = path.evaluate(params, slots);
+            boolean result;
+            if (test == EXISTS) {
+                result = value != null;
+            } else if (test == HAS_CONTENT) {
+                result = hasContent(value);
+            } else if (value instanceof Boolean) {
+                result = (Boolean) value;
+            } else if (value == null) {
+                throw new IllegalStateException("The value " + path + " is missing");
+            } else {
+                throw new IllegalStateException("The value " + path + " is not a boolean");
+            }
+            return result != negated;
+        }
+
+        private static boolean hasContent(Object value) {
+            if (value == null) {
+                return false;
+            } else if (value instanceof CharSequence) {
+                return ((CharSequence) value).length() > 0;
+            } else if (value instanceof Object[]) {
+                return ((Object[]) value).length > 0;
+            } else if (value instanceof Collection) {
+                return !((Collection<?>) value).isEmpty();
+            } else if (value instanceof Map) {
+                return !((Map<?, ?>) value).isEmpty();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The operand of the <code>list</code> directives.
+     */
+    static final class Loop {
+
+        private final Path sequence;
+
+        private final int slot;
+
+        /**
+         * Instantiates a new Loop.
+         *
+         * @param sequence the path of the items
+         * @param slot     the slot of the loop variable
+         */
+        Loop(Path sequence, int slot) {
+            this.sequence = sequence;
+            this.slot = slot;
+        }
+    }
+
+}
@@ -0,0 +1,450 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.template.DocTemplate;
+import com.github.setial.intellijjavadocs.template.TemplateEngine;
+import com.github.setial.intellijjavadocs.template.impl.CompactTemplate.Condition;
+import com.github.setial.intellijjavadocs.template.impl.CompactTemplate.Loop;
+import com.github.setial.intellijjavadocs.template.impl.CompactTemplate.Path;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The template engine for the templates which only interpolate values and use simple <code>if</code> and
+ * <code>list</code> directives, as the shipped templates do. Such templates are compiled into
+ * {@link CompactTemplate}, which renders without setting up the FreeMarker environment and without reflection.
+ * <p>
+ * Supported are:
+ * <ul>
+ * <li><code>${path}</code> interpolations</li>
+ * <li><code>&lt;#if condition&gt;</code>, <code>&lt;#elseif condition&gt;</code>, <code>&lt;#else&gt;</code></li>
+ * <li><code>&lt;#list path as item&gt;</code></li>
+ * <li>comments</li>
+ * </ul>
+ * where the path is a param or loop variable followed by the PSI properties read by {@link PsiElementModel}
+ * (<code>.name</code>, <code>.getName()</code>) and the keys (<code>[0]</code>, <code>['key']</code>,
+ * <code>[path]</code>), and the condition is a path optionally tested by <code>??</code> or
+ * <code>?has_content</code> and negated by <code>!</code>. For any other source no template is compiled, so the
+ * template falls back to the next engine.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class CompactTemplateEngine implements TemplateEngine {
+
+    private static final Pattern DIRECTIVE = Pattern.compile("</?#([a-zA-Z]+)(.*)>", Pattern.DOTALL);
+
+    private static final Pattern LIST = Pattern.compile("\\s+(.+?)\\s+as\\s+([a-zA-Z_$][\\w$]*)\\s*");
+
+    @Nullable
+    @Override
+    public DocTemplate compile(@NotNull String name, @NotNull String source) {
+        return new Compiler(name, source).compile();
+    }
+
+    /**
+     * The compiler of one template, keeps the emitted instructions and the open directives.
+     */
+    private static final class Compiler {
+
+        private final String name;
+
+        private final String source;
+
+        private final String text;
+
+        private final List<Integer> codes = new ArrayList<Integer>();
+
+        private final List<Object> operands = new ArrayList<Object>();
+
+        private final List<Integer> targets = new ArrayList<Integer>();
+
+        private final List<Block> blocks = new ArrayList<Block>();
+
+        // the loop variables visible at the current position, the index is the slot
+        private final List<String> loopVariables = new ArrayList<String>();
+
+        // the roots of the paths which are not loop variables
+        private final Set<String> variables = new HashSet<String>();
+
+        private int slotCount;
+
+        private int position;
+
+        private Compiler(String name, String source) {
+            this.name = name;
+            this.source = source;
+            this.text = TemplateSourceNormalizer.normalize(source);
+        }
+
+        private CompactTemplate compile() {
+            StringBuilder literal = new StringBuilder();
+            while (position < text.length()) {
+                int start = position;
+                if (text.startsWith("<#--", start)) {
+                    int end = text.indexOf("-->", start);
+                    if (end < 0) {
+                        return null;
+                    }
+                    position = end + 3;
+                    continue;
+                }
+                boolean directive = text.startsWith("<#", start) || text.startsWith("</#", start);
+                boolean interpolation = text.startsWith("${", start);
+                if (!directive && !interpolation) {
+                    if (text.startsWith("#{", start) || text.startsWith("<@", start) || text.startsWith("</@", start)
+                            || text.startsWith("[#", start) || text.startsWith("[@", start)) {
+                        return null;
+                    }
+                    literal.append(text.charAt(start));
+                    position++;
+                    continue;
+                }
+                int end = findEnd(start, interpolation);
+                if (end < 0) {
+                    return null;
+                }
+                emitText(literal);
+                String content = text.substring(start, end);
+                position = end;
+                boolean compiled = interpolation
+                        ? compileInterpolation(content.substring(2, content.length() - 1))
+                        : compileDirective(content);
+                if (!compiled) {
+                    return null;
+                }
+            }
+            emitText(literal);
+            if (!blocks.isEmpty()) {
+                return null;
+            }
+            int[] codeArray = new int[codes.size()];
+            int[] targetArray = new int[targets.size()];
+            for (int i = 0; i < codeArray.length; i++) {
+                codeArray[i] = codes.get(i);
+                targetArray[i] = targets.get(i);
+            }
+            return new CompactTemplate(name, source, codeArray, operands.toArray(), targetArray, slotCount,
+                    Collections.unmodifiableSet(variables));
+        }
+
+        private boolean compileInterpolation(String expression) {
+            Path path = parsePath(expression.trim());
+            if (path == null) {
+                return false;
+            }
+            emit(CompactTemplate.PRINT, path);
+            return true;
+        }
+
+        private boolean compileDirective(String tag) {
+            Matcher matcher = DIRECTIVE.matcher(tag);
+            if (!matcher.matches() || tag.endsWith("/>")) {
+                return false;
+            }
+            String directive = matcher.group(1);
+            String parameters = matcher.group(2);
+            Block block = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+            if (tag.startsWith("</")) {
+                if (!parameters.trim().isEmpty() || block == null || !directive.equals(block.directive)) {
+                    return false;
+                }
+                blocks.remove(blocks.size() - 1);
+                if (block.loop) {
+                    // loop back to the first instruction of the body
+                    emit(CompactTemplate.NEXT, block.slot);
+                    targets.set(targets.size() - 1, block.start + 1);
+                    loopVariables.remove(loopVariables.size() - 1);
+                    targets.set(block.start, codes.size());
+                } else {
+                    // the last condition and the ends of the branches continue after the directive
+                    if (block.start >= 0) {
+                        targets.set(block.start, codes.size());
+                    }
+                    for (Integer jump : block.jumps) {
+                        targets.set(jump, codes.size());
+                    }
+                }
+                return true;
+            }
+            if ("if".equals(directive) || "elseif".equals(directive)) {
+                Condition condition = parseCondition(parameters);
+                if (condition == null) {
+                    return false;
+                }
+                if ("elseif".equals(directive)) {
+                    if (block == null || block.loop || block.elseSeen) {
+                        return false;
+                    }
+                    block.jumps.add(emit(CompactTemplate.JUMP, null));
+                    targets.set(block.start, codes.size());
+                    block.start = emit(CompactTemplate.BRANCH, condition);
+                } else {
+                    blocks.add(new Block("if", emit(CompactTemplate.BRANCH, condition), false, -1));
+                }
+                return true;
+            } else if ("else".equals(directive)) {
+                if (!parameters.trim().isEmpty() || block == null || block.loop || block.elseSeen) {
+                    return false;
+                }
+                block.jumps.add(emit(CompactTemplate.JUMP, null));
+                targets.set(block.start, codes.size());
+                block.start = -1;
+                block.elseSeen = true;
+                return true;
+            } else if ("list".equals(directive)) {
+                Matcher list = LIST.matcher(parameters);
+                if (!list.matches()) {
+                    return false;
+                }
+                Path sequence = parsePath(list.group(1));
+                if (sequence == null) {
+                    return false;
+                }
+                int slot = loopVariables.size();
+                int start = emit(CompactTemplate.LIST, new Loop(sequence, slot));
+                loopVariables.add(list.group(2));
+                slotCount = Math.max(slotCount, loopVariables.size());
+                blocks.add(new Block("list", start, true, slot));
+                return true;
+            }
+            return false;
+        }
+
+        private Condition parseCondition(String expression) {
+            String condition = expression.trim();
+            boolean negated = condition.startsWith("!");
+            if (negated) {
+                condition = condition.substring(1).trim();
+            }
+            int test = Condition.VALUE;
+            if (condition.endsWith("??")) {
+                test = Condition.EXISTS;
+                condition = condition.substring(0, condition.length() - 2);
+            } else if (condition.endsWith("?has_content")) {
+                test = Condition.HAS_CONTENT;
+                condition = condition.substring(0, condition.length() - "?has_content".length());
+            }
+            Path path = parsePath(condition);
+            return path == null ? null : new Condition(path, test, negated);
+        }
+
+        /**
+         * Parses the path, the whole expression has to be the path.
+         *
+         * @param expression the expression
+         * @return the path or null if the expression is not a supported path
+         */
+        private Path parsePath(String expression) {
+            PathParser parser = new PathParser(expression);
+            Path path = parser.parsePath();
+            return parser.position == expression.length() ? path : null;
+        }
+
+        private int findEnd(int start, boolean interpolation) {
+            int depth = 0;
+            char quote = 0;
+            for (int i = start + 2; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\') {
+                        i++;
+                    } else if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if ((c == ')' || c == ']') && depth > 0) {
+                    depth--;
+                } else if (c == '}' && interpolation) {
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                    depth--;
+                } else if (c == '}') {
+                    depth--;
+                } else if (c == '>' && !interpolation && depth <= 0) {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        private void emitText(StringBuilder literal) {
+            if (literal.length() > 0) {
+                emit(CompactTemplate.TEXT, literal.toString());
+                literal.setLength(0);
+            }
+        }
+
+        private int emit(int code, Object operand) {
+            codes.add(code);
+            operands.add(operand);
+            targets.add(-1);
+            return codes.size() - 1;
+        }
+
+        /**
+         * The parser of the paths, see {@link Path}.
+         */
+        private final class PathParser {
+
+            private final String expression;
+
+            private int position;
+
+            private PathParser(String expression) {
+                this.expression = expression;
+            }
+
+            private Path parsePath() {
+                int start = position;
+                String root = parseName();
+                if (root == null || "true".equals(root) || "false".equals(root)) {
+                    return null;
+                }
+                int slot = loopVariables.lastIndexOf(root);
+                if (slot < 0 && isLoopBuiltIn(root)) {
+                    return null;
+                }
+                if (slot < 0) {
+                    variables.add(root);
+                }
+                List<Integer> steps = new ArrayList<Integer>();
+                List<Object> keys = new ArrayList<Object>();
+                while (position < expression.length()) {
+                    char c = expression.charAt(position);
+                    if (c == '.') {
+                        position++;
+                        String property = parseName();
+                        if (property == null) {
+                            return null;
+                        }
+                        if (expression.startsWith("()", position)) {
+                            position += 2;
+                            property = PsiElementModel.getPropertyName(property);
+                            steps.add(Path.GETTER);
+                        } else {
+                            steps.add(Path.PROPERTY);
+                        }
+                        if (property == null || !PsiElementModel.PROPERTY_NAMES.contains(property)) {
+                            return null;
+                        }
+                        keys.add(property);
+                    } else if (c == '[') {
+                        position++;
+                        Object key = parseKey();
+                        if (key == null || !expression.startsWith("]", position)) {
+                            return null;
+                        }
+                        position++;
+                        steps.add(Path.KEY);
+                        keys.add(key);
+                    } else {
+                        break;
+                    }
+                }
+                int[] stepArray = new int[steps.size()];
+                for (int i = 0; i < stepArray.length; i++) {
+                    stepArray[i] = steps.get(i);
+                }
+                return new Path(expression.substring(start, position), root, slot, stepArray, keys.toArray());
+            }
+
+            private Object parseKey() {
+                skipWhitespaces();
+                Object result;
+                if (position >= expression.length()) {
+                    return null;
+                }
+                char c = expression.charAt(position);
+                if (Character.isDigit(c)) {
+                    int start = position;
+                    while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                        position++;
+                    }
+                    if (position - start > 9) {
+                        return null;
+                    }
+                    result = Integer.valueOf(expression.substring(start, position));
+                } else if (c == '\'' || c == '"') {
+                    int end = expression.indexOf(c, position + 1);
+                    String value = end < 0 ? null : expression.substring(position + 1, end);
+                    if (value == null || value.indexOf('\\') >= 0 || value.contains("${")) {
+                        return null;
+                    }
+                    position = end + 1;
+                    result = value;
+                } else {
+                    result = parsePath();
+                }
+                skipWhitespaces();
+                return result;
+            }
+
+            private String parseName() {
+                int start = position;
+                while (position < expression.length()) {
+                    char c = expression.charAt(position);
+                    boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$';
+                    if (!letter && !(position > start && c >= '0' && c <= '9')) {
+                        break;
+                    }
+                    position++;
+                }
+                return position > start ? expression.substring(start, position) : null;
+            }
+
+            private boolean isLoopBuiltIn(String root) {
+                for (String variable : loopVariables) {
+                    if (root.equals(variable + "_index") || root.equals(variable + "_has_next")) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private void skipWhitespaces() {
+                while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+    }
+
+    /**
+     * The open <code>if</code> or <code>list</code> directive.
+     */
+    private static final class Block {
+
+        private final String directive;
+
+        private final boolean loop;
+
+        private final int slot;
+
+        // the jumps to the end of the if directive
+        private final List<Integer> jumps = new ArrayList<Integer>();
+
+        // the branch of the current condition, or the list instruction
+        private int start;
+
+        private boolean elseSeen;
+
+        private Block(String directive, int start, boolean loop, int slot) {
+            this.directive = directive;
+            this.start = start;
+            this.loop = loop;
+            this.slot = slot;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The bounded cache from identifier to the description built from it, one instance per kind of the description.
+ * <p>
+ * The lookups do not lock. The identifiers seen in a project are few, so instead of tracking the least recently
+ * used entry the whole cache is dropped when it is full.
+ *
+ * @author Sergey Timofiychuk
+ */
+final class DescriptionCache {
+
+    private static final int MAX_KEY_LENGTH = 256;
+
+    private final ConcurrentMap<String, String> entries = new ConcurrentHashMap<String, String>();
+
+    private final int capacity;
+
+    /**
+     * Instantiates a new Description cache.
+     *
+     * @param capacity the maximum number of entries
+     */
+    DescriptionCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the cached description.
+     *
+     * @param identifier the identifier
+     * @return the description or null if there is no such entry
+     */
+    @Nullable
+    String get(@NotNull String identifier) {
+        return entries.get(identifier);
+    }
+
+    /**
+     * Puts the description to the cache.
+     *
+     * @param identifier  the identifier
+     * @param description the description
+     * @return the description
+     */
+    @NotNull
+    String put(@NotNull String identifier, @NotNull String description) {
+        if (identifier.length() <= MAX_KEY_LENGTH) {
+            if (entries.size() >= capacity) {
+                entries.clear();
+            }
+            entries.put(identifier, description);
+        }
+        return description;
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * The tokenizer of the identifiers into the description words. The identifier is scanned once: the generics are
+ * skipped, the words are split by the character type and camel case, and appended straight to the given buffer, so
+ * no intermediate strings or arrays are created.
+ * <p>
+ * The words are the same as built from
+ * {@link org.apache.commons.lang3.StringUtils#splitByCharacterTypeCamelCase(String)} of the identifier without
+ * <code>&lt;.+&gt;</code>: the leading <code>I</code>, the trailing <code>Impl</code> and the <code>_</code> and
+ * <code>$</code> words are dropped from the descriptions, and the words are lower cased by the default locale.
+ *
+ * @author Sergey Timofiychuk
+ */
+final class DescriptionTokenizer {
+
+    private static final String GENERICS_PATTERN = "<.+>";
+
+    private static final String CLASS_SUFFIX = "Impl";
+
+    /**
+     * Appends the description of the identifier, the words separated by spaces.
+     *
+     * @param identifier      the identifier
+     * @param firstWord       the number of the leading words to skip
+     * @param capitalizeFirst whether the first appended word is capitalized
+     * @param out             the buffer
+     */
+    static void appendDescription(@NotNull String identifier, int firstWord, boolean capitalizeFirst,
+            @NotNull StringBuilder out) {
+        append(identifier, false, firstWord, capitalizeFirst, out);
+    }
+
+    /**
+     * Appends the field name built from the identifier: the first word is dropped and the rest are joined in camel
+     * case.
+     *
+     * @param identifier the identifier
+     * @param out        the buffer
+     */
+    static void appendFieldDescription(@NotNull String identifier, @NotNull StringBuilder out) {
+        append(identifier, true, 1, false, out);
+    }
+
+    private static void append(String identifier, boolean field, int firstWord, boolean capitalizeFirst,
+            StringBuilder out) {
+        String text = identifier;
+        int skipStart = -1;
+        int skipEnd = -1;
+        if (identifier.indexOf('<') >= 0) {
+            if (hasLineTerminator(identifier)) {
+                // the generics can not span the lines, which the identifiers never have
+                text = identifier.replaceAll(GENERICS_PATTERN, "");
+            } else {
+                skipStart = findGenericsStart(identifier);
+                skipEnd = identifier.lastIndexOf('>') + 1;
+            }
+        }
+        int length = text.length();
+        int tokenStart = skipStart == 0 ? skipEnd : 0;
+        if (tokenStart >= length) {
+            return;
+        }
+        boolean asciiLowerCase = isAsciiLowerCase();
+        // the token is held back until the next one is found, as the trailing Impl is dropped
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        int tokenIndex = 0;
+        int words = 0;
+        int currentType = Character.getType(text.charAt(tokenStart));
+        int previous = tokenStart;
+        for (int pos = next(tokenStart, skipStart, skipEnd); pos < length; pos = next(pos, skipStart, skipEnd)) {
+            int type = Character.getType(text.charAt(pos));
+            if (type == currentType) {
+                previous = pos;
+                continue;
+            }
+            int tokenEnd = pos;
+            if (type == Character.LOWERCASE_LETTER && currentType == Character.UPPERCASE_LETTER) {
+                // the last upper case letter starts the next word
+                tokenEnd = previous;
+            }
+            if (tokenEnd != tokenStart) {
+                if (pendingStart >= 0) {
+                    words = appendWord(text, pendingStart, pendingEnd, skipStart, skipEnd, tokenIndex++, false,
+                            words, field, firstWord, capitalizeFirst, asciiLowerCase, out);
+                }
+                pendingStart = tokenStart;
+                pendingEnd = tokenEnd;
+                tokenStart = tokenEnd;
+            }
+            currentType = type;
+            previous = pos;
+        }
+        if (pendingStart >= 0) {
+            words = appendWord(text, pendingStart, pendingEnd, skipStart, skipEnd, tokenIndex++, false, words,
+                    field, firstWord, capitalizeFirst, asciiLowerCase, out);
+        }
+        appendWord(text, tokenStart, length, skipStart, skipEnd, tokenIndex, true, words, field, firstWord,
+                capitalizeFirst, asciiLowerCase, out);
+    }
+
+    private static int appendWord(String text, int start, int end, int skipStart, int skipEnd, int tokenIndex,
+            boolean lastToken, int words, boolean field, int firstWord, boolean capitalizeFirst,
+            boolean asciiLowerCase, StringBuilder out) {
+        if (field) {
+            if (tokenIndex > 0) {
+                int mark = out.length();
+                appendChars(text, start, end, skipStart, skipEnd, out);
+                char first = out.charAt(mark);
+                out.setCharAt(mark, tokenIndex == 1 ? Character.toLowerCase(first) : Character.toTitleCase(first));
+            }
+            return words;
+        }
+        char first = text.charAt(start);
+        boolean singleChar = next(start, skipStart, skipEnd) == end;
+        if (singleChar && (first == '_' || first == '$')
+                || tokenIndex == 0 && singleChar && equalsIgnoreCase(first, 'I')
+                || lastToken && regionEqualsIgnoreCase(text, start, end, skipStart, skipEnd, CLASS_SUFFIX)) {
+            return words;
+        }
+        if (words >= firstWord) {
+            if (words > firstWord) {
+                out.append(' ');
+            }
+            int mark = out.length();
+            appendChars(text, start, end, skipStart, skipEnd, out);
+            if (!asciiLowerCase || !toAsciiLowerCase(out, mark)) {
+                String lowerCase = out.substring(mark).toLowerCase();
+                out.setLength(mark);
+                out.append(lowerCase);
+            }
+            if (capitalizeFirst && words == firstWord) {
+                out.setCharAt(mark, Character.toTitleCase(out.charAt(mark)));
+            }
+        }
+        return words + 1;
+    }
+
+    private static void appendChars(String text, int start, int end, int skipStart, int skipEnd,
+            StringBuilder out) {
+        if (skipStart < start || skipStart >= end) {
+            out.append(text, start, end);
+        } else {
+            out.append(text, start, skipStart).append(text, skipEnd, end);
+        }
+    }
+
+    private static boolean toAsciiLowerCase(StringBuilder out, int mark) {
+        for (int i = mark; i < out.length(); i++) {
+            if (out.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        for (int i = mark; i < out.length(); i++) {
+            char c = out.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                out.setCharAt(i, (char) (c + ('a' - 'A')));
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionEqualsIgnoreCase(String text, int start, int end, int skipStart, int skipEnd,
+            String value) {
+        int i = start;
+        for (int j = 0; j < value.length(); j++) {
+            if (i >= end || !equalsIgnoreCase(text.charAt(i), value.charAt(j))) {
+                return false;
+            }
+            i = next(i, skipStart, skipEnd);
+        }
+        return i >= end;
+    }
+
+    private static boolean equalsIgnoreCase(char c1, char c2) {
+        // the same comparison as String.equalsIgnoreCase
+        char u1 = Character.toUpperCase(c1);
+        char u2 = Character.toUpperCase(c2);
+        return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
+    }
+
+    private static int next(int index, int skipStart, int skipEnd) {
+        return index + 1 == skipStart ? skipEnd : index + 1;
+    }
+
+    private static int findGenericsStart(String text) {
+        // the greedy <.+> takes the first < which has a > at least two chars after it, up to the last >
+        int lastEnd = text.lastIndexOf('>');
+        int start = text.indexOf('<');
+        return start >= 0 && start + 2 <= lastEnd ? start : -1;
+    }
+
+    private static boolean hasLineTerminator(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == 0x2028 || c == 0x2029) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLowerCase() {
+        // these locales lower case I (and some following chars) differently, the words are lower cased by the locale
+        String language = Locale.getDefault().getLanguage();
+        return !"tr".equals(language) && !"az".equals(language) && !"lt".equals(language);
+    }
+
+    private DescriptionTokenizer() {
+    }
+
+}
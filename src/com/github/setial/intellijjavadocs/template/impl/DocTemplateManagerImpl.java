@@ -2,20 +2,16 @@ package com.github.setial.intellijjavadocs.template.impl;
 
 import com.github.setial.intellijjavadocs.exception.SetupTemplateException;
 import com.github.setial.intellijjavadocs.exception.TemplateNotFoundException;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.template.DocTemplateManager;
 import com.github.setial.intellijjavadocs.template.DocTemplateProcessor;
+import com.github.setial.intellijjavadocs.template.TemplateEngine;
+import com.github.setial.intellijjavadocs.utils.RegexUtils;
 import com.github.setial.intellijjavadocs.utils.XmlUtils;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.psi.PsiClass;
-import com.intellij.psi.PsiClassType;
-import com.intellij.psi.PsiCodeBlock;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifierList;
-import freemarker.cache.StringTemplateLoader;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import org.apache.commons.lang3.StringUtils;
 import org.jdom.Document;
 import org.jdom.Element;
 import org.jdom.input.SAXBuilder;
@@ -23,13 +19,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
 
 /**
  * The type Doc template manager impl.
@@ -56,252 +51,257 @@ public class DocTemplateManagerImpl implements DocTemplateManager {
 
     private static final String CONSTRUCTOR = "constructor";
 
-    // key : regexp   value: template
-    private Map<String, Template> classTemplates = new LinkedHashMap<String, Template>();
+    private static final int CACHE_CAPACITY = 512;
 
-    private Map<String, Template> fieldTemplates = new LinkedHashMap<String, Template>();
+    // precompiled regexp and template pairs, replaced as a whole when templates change
+    private volatile TemplateTable classTemplates = TemplateTable.EMPTY;
 
-    private Map<String, Template> methodTemplates = new LinkedHashMap<String, Template>();
+    private volatile TemplateTable fieldTemplates = TemplateTable.EMPTY;
 
-    private Map<String, Template> constructorTemplates = new LinkedHashMap<String, Template>();
+    private volatile TemplateTable methodTemplates = TemplateTable.EMPTY;
 
-    private Map<String, Template> variablesTemplates = new LinkedHashMap<String, Template>();
+    private volatile TemplateTable constructorTemplates = TemplateTable.EMPTY;
 
-    private Configuration config;
+    // key : name   value: variable value, replaced as a whole by setVariables
+    private volatile Map<String, String> variables = Collections.emptyMap();
 
-    private StringTemplateLoader templateLoader;
+    private final TemplateCache classTemplatesCache = new TemplateCache(CACHE_CAPACITY);
 
-    /**
-     * Instantiates a new Doc template manager object.
-     */
-    public DocTemplateManagerImpl() {
-        templateLoader = new StringTemplateLoader();
-        config = new Configuration();
-        config.setDefaultEncoding("UTF-8");
-        config.setLocalizedLookup(false);
-        config.setTemplateLoader(templateLoader);
-    }
+    private final TemplateCache fieldTemplatesCache = new TemplateCache(CACHE_CAPACITY);
 
-    @Override
-    public void initComponent() {
-        try {
-            Document document = new SAXBuilder().build(DocTemplateProcessor.class.getResourceAsStream(TEMPLATES_PATH));
-            Element root = document.getRootElement();
-            readTemplates(root, CLASS, classTemplates);
-            readTemplates(root, FIELD, fieldTemplates);
-            readTemplates(root, METHOD, methodTemplates);
-            readTemplates(root, CONSTRUCTOR, constructorTemplates);
-            readTemplates(root, VARIABLES, variablesTemplates);
-        } catch (Exception e) {
-            LOGGER.error(e);
-        }
-    }
+    private final TemplateCache methodTemplatesCache = new TemplateCache(CACHE_CAPACITY);
 
-    @Override
-    public void disposeComponent() {
-    }
+    private final TemplateCache constructorTemplatesCache = new TemplateCache(CACHE_CAPACITY);
 
-    @NotNull
-    @Override
-    public String getComponentName() {
-        return COMPONENT_NAME;
-    }
+    // the shipped templates are loaded on first use
+    private volatile boolean defaultTemplatesLoaded;
+
+    // the engines in the order they are tried, FreeMarker compiles any template
+    private final List<TemplateEngine> engines =
+            Arrays.<TemplateEngine>asList(new CompactTemplateEngine(), new FreeMarkerTemplateEngine());
 
     @Nullable
     @Override
     @SuppressWarnings("ConstantConditions")
-    public Template getClassTemplate(@NotNull PsiClass classElement) {
-        StringBuilder builder = getClassSignature(classElement);
-        return getMatchingTemplate(builder.toString(), classTemplates);
+    public DocTemplate getClassTemplate(@NotNull PsiClass classElement) {
+        loadDefaultTemplates();
+        return getMatchingTemplate(ElementFacts.of(classElement), classTemplates, classTemplatesCache);
     }
 
     @Nullable
     @Override
-    public Template getMethodTemplate(@NotNull PsiMethod methodElement) {
-        Map<String, Template> templates;
+    public DocTemplate getMethodTemplate(@NotNull PsiMethod methodElement) {
+        loadDefaultTemplates();
+        TemplateTable templates;
+        TemplateCache cache;
         if (methodElement.isConstructor()) {
             templates = constructorTemplates;
+            cache = constructorTemplatesCache;
         } else {
             templates = methodTemplates;
+            cache = methodTemplatesCache;
         }
-        String signature = methodElement.getText();
-        PsiCodeBlock methodBody = methodElement.getBody();
-        if (methodBody != null) {
-            signature = signature.replace(methodBody.getText(), "");
-        }
-        return getMatchingTemplate(signature, templates);
+        return getMatchingTemplate(ElementFacts.of(methodElement), templates, cache);
 
     }
 
     @Nullable
     @Override
-    public Template getFieldTemplate(@NotNull PsiField psiField) {
-        return getMatchingTemplate(psiField.getText(), fieldTemplates);
+    public DocTemplate getFieldTemplate(@NotNull PsiField psiField) {
+        loadDefaultTemplates();
+        return getMatchingTemplate(ElementFacts.of(psiField), fieldTemplates, fieldTemplatesCache);
 
     }
 
     @NotNull
     @Override
     public Map<String, String> getClassTemplates() {
-        Map<String, String> templates = new LinkedHashMap<String, String>();
-        for (Entry<String, Template> entry : classTemplates.entrySet()) {
-            String template = extractTemplate(entry.getValue());
-            templates.put(entry.getKey(), template);
-        }
-        return templates;
+        loadDefaultTemplates();
+        return classTemplates.getSources();
     }
 
     @NotNull
     @Override
     public Map<String, String> getConstructorTemplates() {
-        Map<String, String> templates = new LinkedHashMap<String, String>();
-        for (Entry<String, Template> entry : constructorTemplates.entrySet()) {
-            String template = extractTemplate(entry.getValue());
-            templates.put(entry.getKey(), template);
-        }
-        return templates;
+        loadDefaultTemplates();
+        return constructorTemplates.getSources();
     }
 
     @NotNull
     @Override
     public Map<String, String> getMethodTemplates() {
-        Map<String, String> templates = new LinkedHashMap<String, String>();
-        for (Entry<String, Template> entry : methodTemplates.entrySet()) {
-            String template = extractTemplate(entry.getValue());
-            templates.put(entry.getKey(), template);
-        }
-        return templates;
+        loadDefaultTemplates();
+        return methodTemplates.getSources();
     }
 
     @NotNull
     @Override
     public Map<String, String> getFieldTemplates() {
-        Map<String, String> templates = new LinkedHashMap<String, String>();
-        for (Entry<String, Template> entry : fieldTemplates.entrySet()) {
-            String template = extractTemplate(entry.getValue());
-            templates.put(entry.getKey(), template);
-        }
-        return templates;
+        loadDefaultTemplates();
+        return fieldTemplates.getSources();
     }
 
     @Override
     public void setClassTemplates(@NotNull Map<String, String> templates) {
-        setupTemplates(templates, classTemplates, CLASS);
+        loadDefaultTemplates();
+        classTemplates = setupTemplates(templates, classTemplates, CLASS);
     }
 
     @Override
     public void setConstructorTemplates(@NotNull Map<String, String> templates) {
-        setupTemplates(templates, constructorTemplates, CONSTRUCTOR);
+        loadDefaultTemplates();
+        constructorTemplates = setupTemplates(templates, constructorTemplates, CONSTRUCTOR);
     }
 
     @NotNull
     @Override
     public Map<String, String> getVariables() {
-        Map<String, String> templates = new LinkedHashMap<String, String>();
-        for (Entry<String, Template> entry : variablesTemplates.entrySet()) {
-            String template = extractTemplate(entry.getValue());
-            templates.put(entry.getKey(), template);
-        }
-        return templates;
+        loadDefaultTemplates();
+        return variables;
     }
 
     @Override
     public void setVariables(@NotNull Map<String, String> variables) {
-        setupTemplates(variables, variablesTemplates, VARIABLES);
+        loadDefaultTemplates();
+        if (!variables.isEmpty()) {
+            this.variables = Collections.unmodifiableMap(new LinkedHashMap<String, String>(variables));
+        }
     }
 
     @Override
     public void setMethodTemplates(@NotNull Map<String, String> templates) {
-        setupTemplates(templates, methodTemplates, METHOD);
+        loadDefaultTemplates();
+        methodTemplates = setupTemplates(templates, methodTemplates, METHOD);
     }
 
     @Override
     public void setFieldTemplates(@NotNull Map<String, String> templates) {
-        setupTemplates(templates, fieldTemplates, FIELD);
+        loadDefaultTemplates();
+        fieldTemplates = setupTemplates(templates, fieldTemplates, FIELD);
+    }
+
+    /**
+     * Loads the shipped templates on first use, so nothing is parsed or compiled during the IDE startup.
+     */
+    private void loadDefaultTemplates() {
+        if (defaultTemplatesLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (defaultTemplatesLoaded) {
+                return;
+            }
+            try {
+                Document document = new SAXBuilder()
+                        .build(DocTemplateProcessor.class.getResourceAsStream(TEMPLATES_PATH));
+                Element root = document.getRootElement();
+                classTemplates = new TemplateTable(readTemplates(root, CLASS));
+                fieldTemplates = new TemplateTable(readTemplates(root, FIELD));
+                methodTemplates = new TemplateTable(readTemplates(root, METHOD));
+                constructorTemplates = new TemplateTable(readTemplates(root, CONSTRUCTOR));
+                variables = readVariables(root);
+            } catch (Exception e) {
+                LOGGER.error(e);
+            }
+            defaultTemplatesLoaded = true;
+        }
     }
 
     // 根据elementName将template.xml中配置的内容转化为template类型
-    private void readTemplates(Element document, String elementName, Map<String, Template> templates)
-            throws IOException {
+    private Map<String, DocTemplate> readTemplates(Element document, String elementName) throws IOException {
+        Map<String, DocTemplate> templates = new LinkedHashMap<String, DocTemplate>();
         Element root = document.getChild(elementName);
         List<Element> elements = root.getChildren(TEMPLATE);
         for (Element element : elements) {
             String name = element.getAttribute(REGEXP).getValue();
             templates.put(name, createTemplate(name, elementName, XmlUtils.trimElementContent(element)));
         }
+        return templates;
+    }
+
+    // the variables are plain values, they are not compiled
+    private Map<String, String> readVariables(Element document) {
+        Map<String, String> result = new LinkedHashMap<String, String>();
+        List<Element> elements = document.getChild(VARIABLES).getChildren(TEMPLATE);
+        for (Element element : elements) {
+            result.put(element.getAttribute(REGEXP).getValue(), XmlUtils.trimElementContent(element));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the template caches by element kind, the caches expose hit and miss counters.
+     *
+     * @return the template caches
+     */
+    @NotNull
+    public Map<String, TemplateCache> getTemplateCaches() {
+        Map<String, TemplateCache> caches = new LinkedHashMap<String, TemplateCache>();
+        caches.put(CLASS, classTemplatesCache);
+        caches.put(CONSTRUCTOR, constructorTemplatesCache);
+        caches.put(METHOD, methodTemplatesCache);
+        caches.put(FIELD, fieldTemplatesCache);
+        return caches;
     }
 
     @Nullable
-    private Template getMatchingTemplate(@NotNull String elementText, @NotNull Map<String, Template> templates) {
-        Template result = null;
-        for (Entry<String, Template> entry : templates.entrySet()) {
-            if (Pattern.compile(entry.getKey(), Pattern.DOTALL | Pattern.MULTILINE).matcher(elementText).matches()) {
-                result = entry.getValue();
-                break;
+    private DocTemplate getMatchingTemplate(@NotNull ElementFacts element, @NotNull TemplateTable templates,
+            @NotNull TemplateCache cache) {
+        long version = templates.getVersion();
+        String key = null;
+        // predicates are evaluated directly, the selection of such tables is not a function of the signature
+        if (!templates.hasPredicates()) {
+            key = templates.getNormalizer().normalize(element.getSignature());
+            DocTemplate cached = cache.get(version, key);
+            if (cached != null) {
+                return cached;
             }
         }
+        DocTemplate result = templates.findFirst(element);
         if (result == null) {
-            throw new TemplateNotFoundException(elementText);
+            throw new TemplateNotFoundException(element.getSignature());
+        }
+        if (key != null) {
+            cache.put(version, key, result);
         }
         return result;
     }
 
-    private void setupTemplates(Map<String, String> from, Map<String, Template> to, String elementName) {
-        if (from != null && !from.isEmpty()) {
-            Map<String, Template> result = new LinkedHashMap<String, Template>();
-            for (Entry<String, String> entry : from.entrySet()) {
-                try {
-                    result.put(entry.getKey(), createTemplate(entry.getKey(), elementName, entry.getValue()));
-                } catch (Exception e) {
-                    throw new SetupTemplateException(e);
-                }
+    private TemplateTable setupTemplates(Map<String, String> from, TemplateTable current, String elementName) {
+        if (from == null || from.isEmpty()) {
+            return current;
+        }
+        for (String selector : from.keySet()) {
+            if (TemplatePredicate.isPredicate(selector)) {
+                continue;
             }
-            to.clear();
-            to.putAll(result);
+            String problem = RegexUtils.findBacktrackingProblem(selector);
+            if (problem == null) {
+                problem = RegexUtils.findSlowMatchingProblem(selector);
+            }
+            if (problem != null) {
+                LOGGER.warn("The " + elementName + " template " + selector + " is slow to match. " + problem);
+            }
+        }
+        Map<String, DocTemplate> templates = compileTemplates(from, elementName);
+        try {
+            return new TemplateTable(templates);
+        } catch (IllegalArgumentException e) {
+            // malformed regexp or predicate
+            throw new SetupTemplateException(e);
         }
     }
 
-    private StringBuilder getClassSignature(PsiClass classElement) {
-        StringBuilder builder = new StringBuilder();
-        PsiModifierList modifierList = classElement.getModifierList();
-        if (modifierList != null) {
-            builder.append(modifierList.getText());
-        }
-        builder.append(" ");
-        if (classElement.isInterface()) {
-            builder.append("interface ");
-        } else if (classElement.isEnum()) {
-            builder.append("enum ");
-        } else {
-            builder.append("class ");
-        }
-        builder.append(classElement.getName());
-        builder.append(" ");
-        PsiClassType[] extendsTypes = classElement.getExtendsListTypes();
-        if (extendsTypes.length > 0) {
-            builder.append("extends ");
-            for (int i = 0; i < extendsTypes.length; i++) {
-                PsiClassType extendsType = extendsTypes[i];
-                builder.append(extendsType.getClassName());
-                if (i < extendsTypes.length - 1) {
-                    builder.append(",");
-                }
-                builder.append(" ");
+    private Map<String, DocTemplate> compileTemplates(Map<String, String> from, String elementName) {
+        Map<String, DocTemplate> result = new LinkedHashMap<String, DocTemplate>();
+        for (Entry<String, String> entry : from.entrySet()) {
+            try {
+                result.put(entry.getKey(), createTemplate(entry.getKey(), elementName, entry.getValue()));
+            } catch (Exception e) {
+                throw new SetupTemplateException(e);
             }
         }
-        PsiClassType[] implementTypes = classElement.getImplementsListTypes();
-        if (implementTypes.length > 0) {
-            builder.append("implements");
-            for (int i = 0; i < implementTypes.length; i++) {
-                PsiClassType implementType = implementTypes[i];
-                builder.append(implementType.getClassName());
-                if (i < implementTypes.length - 1) {
-                    builder.append(",");
-                }
-                builder.append(" ");
-            }
-        }
-        return builder;
+        return result;
     }
 
     /**
@@ -311,14 +311,16 @@ public class DocTemplateManagerImpl implements DocTemplateManager {
      * @return
      * @throws IOException
      */
-    private Template createTemplate(String templateRegexp, String elementName, String templateContent)
+    private DocTemplate createTemplate(String templateRegexp, String elementName, String templateContent)
             throws IOException {
         String templateName = normalizeName(elementName + templateRegexp);
-        if (templateLoader.findTemplateSource(templateName) != null) {
-            config.clearTemplateCache();
+        for (TemplateEngine engine : engines) {
+            DocTemplate template = engine.compile(templateName, templateContent);
+            if (template != null) {
+                return template;
+            }
         }
-        templateLoader.putTemplate(templateName, templateContent);
-        return config.getTemplate(templateName);
+        throw new IllegalStateException("No template engine supports the template " + templateName);
     }
 
     private String normalizeName(String templateName) {
@@ -327,14 +329,4 @@ public class DocTemplateManagerImpl implements DocTemplateManager {
         return result;
     }
 
-    private String extractTemplate(Template templateData) {
-        Writer writer = new StringWriter();
-        try {
-            templateData.dump(writer);
-        } catch (IOException e) {
-            return StringUtils.EMPTY;
-        }
-        return writer.toString();
-    }
-
 }
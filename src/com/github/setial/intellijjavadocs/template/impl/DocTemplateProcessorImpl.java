@@ -2,17 +2,13 @@ package com.github.setial.intellijjavadocs.template.impl;
 
 import com.github.setial.intellijjavadocs.exception.SetupTemplateException;
 import com.github.setial.intellijjavadocs.exception.TemplateNotFoundException;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
 import com.github.setial.intellijjavadocs.template.DocTemplateProcessor;
-import com.github.setial.intellijjavadocs.utils.XmlUtils;
-import freemarker.template.Template;
+import com.github.setial.intellijjavadocs.utils.RenderBuffer;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.StringWriter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,7 +18,19 @@ import java.util.Map;
  */
 public class DocTemplateProcessorImpl implements DocTemplateProcessor {
 
-    private static final List<String> SPECIAL_SYMBOLS = Arrays.asList("_", "$");
+    // the merged templates are the short javadoc texts, the buffers which grew over 16k are not kept
+    private static final RenderBuffer RENDER_BUFFER = new RenderBuffer(256, 16 * 1024);
+
+    private static final int DESCRIPTION_CACHE_CAPACITY = 4096;
+
+    // the same identifiers (names, types, exceptions) are described over and over, one cache per kind of description
+    private final DescriptionCache descriptions = new DescriptionCache(DESCRIPTION_CACHE_CAPACITY);
+
+    private final DescriptionCache capitalizedDescriptions = new DescriptionCache(DESCRIPTION_CACHE_CAPACITY);
+
+    private final DescriptionCache partialDescriptions = new DescriptionCache(DESCRIPTION_CACHE_CAPACITY);
+
+    private final DescriptionCache fieldDescriptions = new DescriptionCache(DESCRIPTION_CACHE_CAPACITY);
 
     @Override
     public void projectOpened() {
@@ -48,14 +56,17 @@ public class DocTemplateProcessorImpl implements DocTemplateProcessor {
 
     @NotNull
     @Override
-    public String merge(@NotNull Template template, @NotNull Map<String, Object> params) {
-        StringWriter writer = new StringWriter();
+    public String merge(@NotNull DocTemplate template, @NotNull Map<String, Object> params) {
+        StringBuilder buffer = RENDER_BUFFER.acquire();
+        NormalizingWriter writer = new NormalizingWriter(buffer);
         try {
             template.process(params, writer);
-            return XmlUtils.normalizeTemplate(writer.toString());
+            writer.close();
         } catch (Exception e) {
+            RENDER_BUFFER.recycle(buffer);
             throw new SetupTemplateException(e);
         }
+        return RENDER_BUFFER.release(buffer);
     }
 
     @NotNull
@@ -64,7 +75,12 @@ public class DocTemplateProcessorImpl implements DocTemplateProcessor {
         if (StringUtils.isBlank(description)) {
             return StringUtils.EMPTY;
         }
-        return buildDescription(description, 0, capitalizeFirst);
+        DescriptionCache cache = capitalizeFirst ? capitalizedDescriptions : descriptions;
+        String result = cache.get(description);
+        if (result == null) {
+            result = cache.put(description, buildDescription(description, 0, capitalizeFirst));
+        }
+        return result;
     }
 
     @NotNull
@@ -73,7 +89,11 @@ public class DocTemplateProcessorImpl implements DocTemplateProcessor {
         if (StringUtils.isBlank(description)) {
             return StringUtils.EMPTY;
         }
-        return buildDescription(description, 1, false);
+        String result = partialDescriptions.get(description);
+        if (result == null) {
+            result = partialDescriptions.put(description, buildDescription(description, 1, false));
+        }
+        return result;
     }
 
     @NotNull
@@ -82,59 +102,22 @@ public class DocTemplateProcessorImpl implements DocTemplateProcessor {
         if (StringUtils.isBlank(description)) {
             return StringUtils.EMPTY;
         }
-        String[] parts = StringUtils.splitByCharacterTypeCamelCase(description.replaceAll("<.+>", ""));
-        StringBuilder result = new StringBuilder();
-        for (int i = 1; i < parts.length; i++) {
-            if (i > 1) {
-                result.append(StringUtils.capitalize(parts[i]));
-            } else {
-                result.append(StringUtils.uncapitalize(parts[i]));
-            }
+        String result = fieldDescriptions.get(description);
+        if (result == null) {
+            result = fieldDescriptions.put(description, buildFieldDescriptionText(description));
         }
-        return result.toString();
+        return result;
     }
 
-    private String buildDescription(String description, int firstElement, boolean capitalizeFirst) {
-        String[] parts = StringUtils.splitByCharacterTypeCamelCase(description.replaceAll("<.+>", ""));
-        parts = removeInterfacePrefix(parts);
-        parts = removeClassSuffix(parts);
-        parts = removeSpecialSymbols(parts);
-
-        StringBuilder result = new StringBuilder();
-        for (int i = firstElement; i < parts.length; i++) {
-            if (capitalizeFirst && i == firstElement) {
-                result.append(StringUtils.capitalize(StringUtils.lowerCase(parts[i])));
-            } else {
-                result.append(StringUtils.lowerCase(parts[i]));
-            }
-            if (i < parts.length - 1) {
-                result.append(" ");
-            }
-        }
+    private String buildFieldDescriptionText(String description) {
+        StringBuilder result = new StringBuilder(description.length());
+        DescriptionTokenizer.appendFieldDescription(description, result);
         return result.toString();
     }
 
-    private String[] removeInterfacePrefix(String[] parts) {
-        if (parts != null && parts.length > 0 && "I".equalsIgnoreCase(parts[0])) {
-            parts = Arrays.copyOfRange(parts, 1, parts.length);
-        }
-        return parts;
-    }
-
-    private String[] removeClassSuffix(String[] parts) {
-        if (parts != null && parts.length > 0 && "Impl".equalsIgnoreCase(parts[parts.length - 1])) {
-            parts = Arrays.copyOfRange(parts, 0, parts.length - 1);
-        }
-        return parts;
-    }
-
-    private String[] removeSpecialSymbols(String[] parts) {
-        List<String> result = new ArrayList<String>();
-        for (String part : parts) {
-            if (!SPECIAL_SYMBOLS.contains(part)) {
-                result.add(part);
-            }
-        }
-        return result.toArray(new String[result.size()]);
+    private String buildDescription(String description, int firstWord, boolean capitalizeFirst) {
+        StringBuilder result = new StringBuilder(description.length() + 8);
+        DescriptionTokenizer.appendDescription(description, firstWord, capitalizeFirst, result);
+        return result.toString();
     }
 }
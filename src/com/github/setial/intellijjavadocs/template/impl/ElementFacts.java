@@ -0,0 +1,256 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.utils.SignatureUtils;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The structural properties of an element which the template predicates are evaluated against. The properties are
+ * read from the element once, the text signature for the regexp templates is built only on demand.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class ElementFacts {
+
+    /**
+     * The kind flag of classes.
+     */
+    public static final int CLASS = 1;
+
+    /**
+     * The kind flag of interfaces.
+     */
+    public static final int INTERFACE = 1 << 1;
+
+    /**
+     * The kind flag of enums.
+     */
+    public static final int ENUM = 1 << 2;
+
+    /**
+     * The kind flag of annotation types.
+     */
+    public static final int ANNOTATION = 1 << 3;
+
+    /**
+     * The kind flag of methods.
+     */
+    public static final int METHOD = 1 << 4;
+
+    /**
+     * The kind flag of constructors.
+     */
+    public static final int CONSTRUCTOR = 1 << 5;
+
+    /**
+     * The kind flag of fields.
+     */
+    public static final int FIELD = 1 << 6;
+
+    /**
+     * The kind flag of enum constants.
+     */
+    public static final int ENUM_CONSTANT = 1 << 7;
+
+    /**
+     * The visibility flag of public elements.
+     */
+    public static final int PUBLIC = 1 << 8;
+
+    /**
+     * The visibility flag of protected elements.
+     */
+    public static final int PROTECTED = 1 << 9;
+
+    /**
+     * The visibility flag of private elements.
+     */
+    public static final int PRIVATE = 1 << 10;
+
+    /**
+     * The visibility flag of package local elements.
+     */
+    public static final int PACKAGE_LOCAL = 1 << 11;
+
+    /**
+     * The static modifier flag.
+     */
+    public static final int STATIC = 1 << 12;
+
+    /**
+     * The final modifier flag.
+     */
+    public static final int FINAL = 1 << 13;
+
+    /**
+     * The abstract modifier flag.
+     */
+    public static final int ABSTRACT = 1 << 14;
+
+    private static final String[] NO_TYPES = new String[0];
+
+    private final PsiModifierListOwner element;
+
+    private final int flags;
+
+    private final String name;
+
+    private final String type;
+
+    private final String[] parameterTypes;
+
+    private String signature;
+
+    private ElementFacts(PsiModifierListOwner element, int kind, String name, String type, String[] parameterTypes) {
+        this.element = element;
+        this.flags = kind | getModifierFlags(element);
+        this.name = name;
+        this.type = type;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Reads the facts of the class.
+     *
+     * @param classElement the class element
+     * @return the element facts
+     */
+    @NotNull
+    public static ElementFacts of(@NotNull PsiClass classElement) {
+        int kind;
+        if (classElement.isAnnotationType()) {
+            kind = ANNOTATION;
+        } else if (classElement.isInterface()) {
+            kind = INTERFACE;
+        } else if (classElement.isEnum()) {
+            kind = ENUM;
+        } else {
+            kind = CLASS;
+        }
+        return new ElementFacts(classElement, kind, classElement.getName(), null, NO_TYPES);
+    }
+
+    /**
+     * Reads the facts of the method or constructor.
+     *
+     * @param method the method
+     * @return the element facts
+     */
+    @NotNull
+    public static ElementFacts of(@NotNull PsiMethod method) {
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        String[] parameterTypes = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterTypes[i] = getTypeText(parameters[i].getType());
+        }
+        PsiType returnType = method.getReturnType();
+        return new ElementFacts(method, method.isConstructor() ? CONSTRUCTOR : METHOD, method.getName(),
+                returnType == null ? null : getTypeText(returnType), parameterTypes);
+    }
+
+    /**
+     * Reads the facts of the field or enum constant.
+     *
+     * @param field the field
+     * @return the element facts
+     */
+    @NotNull
+    public static ElementFacts of(@NotNull PsiField field) {
+        int kind = field instanceof PsiEnumConstant ? ENUM_CONSTANT : FIELD;
+        return new ElementFacts(field, kind, field.getName(), getTypeText(field.getType()), NO_TYPES);
+    }
+
+    /**
+     * Gets the kind, visibility and modifier flags.
+     *
+     * @return the flags
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Gets the element name.
+     *
+     * @return the name
+     */
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the field or the return type of the method, without whitespaces.
+     *
+     * @return the type or null if the element has no type
+     */
+    @Nullable
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the parameter types of the method, without whitespaces.
+     *
+     * @return the parameter types
+     */
+    @NotNull
+    public String[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Gets the text signature which the regexp templates are matched against.
+     *
+     * @return the signature
+     */
+    @NotNull
+    public String getSignature() {
+        if (signature == null) {
+            if (element instanceof PsiClass) {
+                signature = SignatureUtils.buildClassSignature((PsiClass) element);
+            } else if (element instanceof PsiMethod) {
+                signature = SignatureUtils.buildMethodSignature((PsiMethod) element);
+            } else {
+                signature = SignatureUtils.buildFieldSignature((PsiField) element);
+            }
+        }
+        return signature;
+    }
+
+    private static int getModifierFlags(PsiModifierListOwner element) {
+        int result;
+        if (element.hasModifierProperty(PsiModifier.PUBLIC)) {
+            result = PUBLIC;
+        } else if (element.hasModifierProperty(PsiModifier.PROTECTED)) {
+            result = PROTECTED;
+        } else if (element.hasModifierProperty(PsiModifier.PRIVATE)) {
+            result = PRIVATE;
+        } else {
+            result = PACKAGE_LOCAL;
+        }
+        if (element.hasModifierProperty(PsiModifier.STATIC)) {
+            result |= STATIC;
+        }
+        if (element.hasModifierProperty(PsiModifier.FINAL)) {
+            result |= FINAL;
+        }
+        if (element.hasModifierProperty(PsiModifier.ABSTRACT)) {
+            result |= ABSTRACT;
+        }
+        return result;
+    }
+
+    private static String getTypeText(PsiType type) {
+        return TemplatePredicate.removeWhitespaces(type.getPresentableText());
+    }
+
+}
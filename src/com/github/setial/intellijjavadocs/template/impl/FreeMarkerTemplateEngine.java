@@ -0,0 +1,126 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.exception.SetupTemplateException;
+import com.github.setial.intellijjavadocs.template.DocTemplate;
+import com.github.setial.intellijjavadocs.template.TemplateEngine;
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The template engine backed by FreeMarker, supports any template.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class FreeMarkerTemplateEngine implements TemplateEngine {
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_$][\\w$]*");
+
+    // the params looked up by a computed name, or read by the included or evaluated templates
+    private static final Pattern DYNAMIC_LOOKUP = Pattern.compile(
+            "\\.(vars|data_model|globals|main|namespace)\\b|\\?(eval|interpret)\\b|#(include|import)\\b");
+
+    private final Configuration config;
+
+    private final StringTemplateLoader templateLoader;
+
+    /**
+     * Instantiates a new Free marker template engine.
+     */
+    public FreeMarkerTemplateEngine() {
+        templateLoader = new StringTemplateLoader();
+        config = new Configuration();
+        config.setDefaultEncoding("UTF-8");
+        config.setLocalizedLookup(false);
+        config.setTemplateLoader(templateLoader);
+        config.setObjectWrapper(new PsiObjectWrapper());
+    }
+
+    @NotNull
+    @Override
+    public DocTemplate compile(@NotNull String name, @NotNull String source) throws IOException {
+        if (templateLoader.findTemplateSource(name) != null) {
+            config.clearTemplateCache();
+        }
+        // the rendered javadoc is normalized anyway, the layout of the source is dropped once here
+        templateLoader.putTemplate(name, TemplateSourceNormalizer.normalize(source));
+        return new FreeMarkerDocTemplate(config.getTemplate(name), source, findReferencedVariables(source));
+    }
+
+    /**
+     * Finds the params the template may read. The source is not analyzed, every name in it is taken, which is more
+     * than the template reads but never less.
+     *
+     * @param source the source
+     * @return the param names, or null if the template may read any param
+     */
+    private static Set<String> findReferencedVariables(String source) {
+        if (DYNAMIC_LOOKUP.matcher(source).find()) {
+            return null;
+        }
+        Set<String> result = new HashSet<String>();
+        Matcher matcher = NAME.matcher(source);
+        while (matcher.find()) {
+            result.add(matcher.group());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * The FreeMarker template with the source written by the user.
+     */
+    private static final class FreeMarkerDocTemplate implements DocTemplate {
+
+        private final Template template;
+
+        private final String source;
+
+        private final Set<String> referencedVariables;
+
+        private FreeMarkerDocTemplate(Template template, String source, Set<String> referencedVariables) {
+            this.template = template;
+            this.source = source;
+            this.referencedVariables = referencedVariables;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return template.getName();
+        }
+
+        @NotNull
+        @Override
+        public String getSource() {
+            return source;
+        }
+
+        @Nullable
+        @Override
+        public Set<String> getReferencedVariables() {
+            return referencedVariables;
+        }
+
+        @Override
+        public void process(@NotNull Map<String, Object> params, @NotNull Writer out) throws IOException {
+            try {
+                template.process(params, out);
+            } catch (TemplateException e) {
+                throw new SetupTemplateException(e);
+            }
+        }
+    }
+
+}
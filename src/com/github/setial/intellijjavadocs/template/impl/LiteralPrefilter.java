@@ -0,0 +1,257 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The literal prefilter for a list of template regexps.
+ * <p>
+ * Every regexp is reduced to the literals that any matching text must contain. All literals of all regexps are
+ * merged into one automaton, so a single pass over the element text tells which regexps can possibly match; only
+ * those are evaluated with the regexp engine. Regexps without required literals (e.g. <code>.+</code>) are always
+ * evaluated.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class LiteralPrefilter {
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+
+    private final BitSet[] outputs;
+
+    private final BitSet[] requirements;
+
+    private final int literalsCount;
+
+    /**
+     * Instantiates a new Literal prefilter.
+     *
+     * @param regexps the regexps in matching order
+     */
+    public LiteralPrefilter(@NotNull List<String> regexps) {
+        Map<String, Integer> literals = new LinkedHashMap<String, Integer>();
+        requirements = new BitSet[regexps.size()];
+        for (int i = 0; i < regexps.size(); i++) {
+            BitSet required = new BitSet();
+            for (String literal : findRequiredLiterals(regexps.get(i))) {
+                Integer id = literals.get(literal);
+                if (id == null) {
+                    id = literals.size();
+                    literals.put(literal, id);
+                }
+                required.set(id);
+            }
+            requirements[i] = required;
+        }
+        literalsCount = literals.size();
+
+        // build the trie
+        List<int[]> trie = new ArrayList<int[]>();
+        List<BitSet> trieOutputs = new ArrayList<BitSet>();
+        trie.add(newState());
+        trieOutputs.add(new BitSet());
+        for (Map.Entry<String, Integer> entry : literals.entrySet()) {
+            int state = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                if (trie.get(state)[c] < 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(newState());
+                    trieOutputs.add(new BitSet());
+                }
+                state = trie.get(state)[c];
+            }
+            trieOutputs.get(state).set(entry.getValue());
+        }
+
+        // turn the trie into the automaton using failure links
+        transitions = trie.toArray(new int[trie.size()][]);
+        outputs = trieOutputs.toArray(new BitSet[trieOutputs.size()]);
+        int[] failures = new int[transitions.length];
+        LinkedList<Integer> queue = new LinkedList<Integer>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failures[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.removeFirst();
+            outputs[state].or(outputs[failures[state]]);
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failures[state]][c];
+                } else {
+                    failures[next] = transitions[failures[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the text once and returns the indexes of regexps which literals are all present in the text.
+     *
+     * @param text the text
+     * @return the candidate regexps
+     */
+    @NotNull
+    public BitSet findCandidates(@NotNull CharSequence text) {
+        BitSet found = new BitSet(literalsCount);
+        if (literalsCount > 0) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                state = c < ALPHABET ? transitions[state][c] : 0;
+                if (!outputs[state].isEmpty()) {
+                    found.or(outputs[state]);
+                }
+            }
+        }
+        BitSet candidates = new BitSet(requirements.length);
+        for (int i = 0; i < requirements.length; i++) {
+            if (containsAll(found, requirements[i])) {
+                candidates.set(i);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the literals that every text matching the regexp contains. The analysis is conservative, the regexp
+     * parts that are optional, repeated, grouped or escaped are skipped.
+     *
+     * @param regexp the regexp
+     * @return the required literals
+     */
+    @NotNull
+    static List<String> findRequiredLiterals(@NotNull String regexp) {
+        List<String> result = new ArrayList<String>();
+        if (regexp.contains("(?") || regexp.contains("\\Q")) {
+            // flags, lookarounds and quotations change the meaning of the literals
+            return result;
+        }
+        StringBuilder literal = new StringBuilder();
+        int depth = 0;
+        int i = 0;
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            switch (c) {
+                case '\\':
+                    flush(literal, result);
+                    i += 2;
+                    continue;
+                case '[':
+                    flush(literal, result);
+                    i = skipCharacterClass(regexp, i);
+                    continue;
+                case '(':
+                    flush(literal, result);
+                    depth++;
+                    break;
+                case ')':
+                    flush(literal, result);
+                    depth--;
+                    break;
+                case '|':
+                    if (depth == 0) {
+                        // top level alternation, no literal is required
+                        result.clear();
+                        return result;
+                    }
+                    break;
+                case '*':
+                case '?':
+                    dropLast(literal);
+                    flush(literal, result);
+                    break;
+                case '{':
+                    dropLast(literal);
+                    flush(literal, result);
+                    int end = regexp.indexOf('}', i);
+                    i = end < 0 ? regexp.length() : end + 1;
+                    continue;
+                case '+':
+                case '.':
+                case '^':
+                case '$':
+                    flush(literal, result);
+                    break;
+                default:
+                    if (depth == 0 && c < ALPHABET) {
+                        literal.append(c);
+                    } else {
+                        flush(literal, result);
+                    }
+                    break;
+            }
+            i++;
+        }
+        flush(literal, result);
+        return result;
+    }
+
+    private static int skipCharacterClass(String regexp, int start) {
+        int i = start + 1;
+        if (i < regexp.length() && regexp.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regexp.length() && regexp.charAt(i) == ']') {
+            i++;
+        }
+        int depth = 1;
+        while (i < regexp.length() && depth > 0) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static void dropLast(StringBuilder literal) {
+        if (literal.length() > 0) {
+            literal.setLength(literal.length() - 1);
+        }
+    }
+
+    private static void flush(StringBuilder literal, List<String> result) {
+        if (literal.length() > 0) {
+            result.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    private static boolean containsAll(BitSet found, BitSet required) {
+        for (int i = required.nextSetBit(0); i >= 0; i = required.nextSetBit(i + 1)) {
+            if (!found.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+}
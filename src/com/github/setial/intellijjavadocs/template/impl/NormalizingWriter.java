@@ -0,0 +1,121 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Writer;
+
+/**
+ * The writer which normalizes the rendered template while it is written: leading and trailing whitespaces are
+ * dropped, every other run of whitespaces becomes one space, and the <code>\n</code> escapes become line breaks.
+ * The line breaks produced by the escapes are kept as they are.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class NormalizingWriter extends Writer {
+
+    private final StringBuilder out;
+
+    private boolean started;
+
+    private boolean pendingSpace;
+
+    private boolean pendingBackslash;
+
+    /**
+     * Instantiates a new Normalizing writer.
+     *
+     * @param out the buffer to write the normalized text to
+     */
+    public NormalizingWriter(@NotNull StringBuilder out) {
+        this.out = out;
+    }
+
+    /**
+     * Checks if the character is the whitespace collapsed by the normalization.
+     *
+     * @param c the character
+     * @return the boolean
+     */
+    public static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+
+    @Override
+    public void write(int c) {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(@NotNull char[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(buffer[i]);
+        }
+    }
+
+    @Override
+    public void write(@NotNull String text, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            writeChar(text.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence text) {
+        String value = String.valueOf(text);
+        write(value, 0, value.length());
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes the pending backslash, the trailing whitespaces are dropped.
+     */
+    @Override
+    public void close() {
+        if (pendingBackslash) {
+            out.append('\\');
+            pendingBackslash = false;
+        }
+        pendingSpace = false;
+    }
+
+    /**
+     * Closes the writer and gets the normalized text.
+     *
+     * @return the normalized text
+     */
+    @Override
+    public String toString() {
+        close();
+        return out.toString();
+    }
+
+    private void writeChar(char c) {
+        if (pendingBackslash) {
+            pendingBackslash = false;
+            if (c == 'n') {
+                out.append('\n');
+                return;
+            }
+            out.append('\\');
+        }
+        if (isWhitespace(c)) {
+            pendingSpace = started;
+            return;
+        }
+        if (pendingSpace) {
+            out.append(' ');
+            pendingSpace = false;
+        }
+        started = true;
+        if (c == '\\') {
+            pendingBackslash = true;
+        } else {
+            out.append(c);
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiTypeParameterListOwner;
+import freemarker.ext.util.WrapperTemplateModel;
+import freemarker.template.AdapterTemplateModel;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateScalarModel;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The template model of the PSI element. The properties used by the javadoc templates are read directly from the
+ * element on first access and kept for the rendering:
+ * <ul>
+ * <li><code>name</code> - of any named element</li>
+ * <li><code>parent</code> - of any element</li>
+ * <li><code>typeParameters</code> - of classes and methods</li>
+ * <li><code>parameterList</code>, <code>throwsList</code> - of methods</li>
+ * <li><code>parameters</code> - of parameter lists</li>
+ * <li><code>referenceElements</code> - of reference lists</li>
+ * <li><code>referenceName</code> - of references</li>
+ * <li><code>interface</code>, <code>enum</code> - of classes</li>
+ * </ul>
+ * Each property is also available as getter method, e.g. <code>element.getName()</code> or
+ * <code>element.parent.isInterface()</code>. Any other key, and the getter called with arguments, is resolved by the
+ * reflective bean model. The element itself is printed as its string form, e.g. <code>${element}</code>.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class PsiElementModel
+        implements TemplateHashModel, TemplateScalarModel, AdapterTemplateModel, WrapperTemplateModel {
+
+    /**
+     * The names of the properties read directly from the elements.
+     */
+    static final Set<String> PROPERTY_NAMES = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            "name", "parent", "typeParameters", "parameterList", "throwsList", "parameters", "referenceElements",
+            "referenceName", "interface", "enum")));
+
+    /**
+     * The value of the properties which the element does not have.
+     */
+    static final Object UNKNOWN_PROPERTY = new Object();
+
+    // marks the keys which are not the properties of the element
+    private static final TemplateModel UNKNOWN = new TemplateModel() {
+    };
+
+    private final PsiElement element;
+
+    private final PsiObjectWrapper wrapper;
+
+    private final Map<String, TemplateModel> properties = new HashMap<String, TemplateModel>();
+
+    private TemplateHashModel beanModel;
+
+    /**
+     * Instantiates a new Psi element model.
+     *
+     * @param element the element
+     * @param wrapper the wrapper
+     */
+    public PsiElementModel(PsiElement element, PsiObjectWrapper wrapper) {
+        this.element = element;
+        this.wrapper = wrapper;
+    }
+
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+        TemplateModel result = getProperty(key);
+        if (result == UNKNOWN) {
+            String property = getPropertyName(key);
+            if (property != null) {
+                TemplateModel value = getProperty(property);
+                if (value != UNKNOWN) {
+                    return new PropertyMethodModel(key, value);
+                }
+            }
+            return getBeanModel().get(key);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public String getAsString() {
+        return element.toString();
+    }
+
+    @Override
+    public Object getAdaptedObject(Class hint) {
+        return element;
+    }
+
+    @Override
+    public Object getWrappedObject() {
+        return element;
+    }
+
+    private TemplateModel getProperty(String name) throws TemplateModelException {
+        if (properties.containsKey(name)) {
+            return properties.get(name);
+        }
+        TemplateModel result = readProperty(name);
+        properties.put(name, result);
+        return result;
+    }
+
+    private TemplateModel readProperty(String name) throws TemplateModelException {
+        Object value = getPropertyValue(element, name);
+        return value == UNKNOWN_PROPERTY ? UNKNOWN : wrapper.wrap(value);
+    }
+
+    /**
+     * Reads the property of the element directly, without reflection.
+     *
+     * @param element the element
+     * @param name    the property name
+     * @return the property value, {@link #UNKNOWN_PROPERTY} if the element has no such property
+     */
+    static Object getPropertyValue(PsiElement element, String name) {
+        if ("name".equals(name) && element instanceof PsiNamedElement) {
+            return ((PsiNamedElement) element).getName();
+        } else if ("parent".equals(name)) {
+            return element.getParent();
+        } else if ("typeParameters".equals(name) && element instanceof PsiTypeParameterListOwner) {
+            return ((PsiTypeParameterListOwner) element).getTypeParameters();
+        } else if ("parameterList".equals(name) && element instanceof PsiMethod) {
+            return ((PsiMethod) element).getParameterList();
+        } else if ("throwsList".equals(name) && element instanceof PsiMethod) {
+            return ((PsiMethod) element).getThrowsList();
+        } else if ("parameters".equals(name) && element instanceof PsiParameterList) {
+            return ((PsiParameterList) element).getParameters();
+        } else if ("referenceElements".equals(name) && element instanceof PsiReferenceList) {
+            return ((PsiReferenceList) element).getReferenceElements();
+        } else if ("referenceName".equals(name) && element instanceof PsiJavaCodeReferenceElement) {
+            return ((PsiJavaCodeReferenceElement) element).getReferenceName();
+        } else if ("interface".equals(name) && element instanceof PsiClass) {
+            return ((PsiClass) element).isInterface();
+        } else if ("enum".equals(name) && element instanceof PsiClass) {
+            return ((PsiClass) element).isEnum();
+        }
+        return UNKNOWN_PROPERTY;
+    }
+
+    private TemplateHashModel getBeanModel() throws TemplateModelException {
+        if (beanModel == null) {
+            beanModel = (TemplateHashModel) wrapper.wrapAsBean(element);
+        }
+        return beanModel;
+    }
+
+    /**
+     * Gets the name of the property read by the getter method.
+     *
+     * @param methodName the getter method name, e.g. <code>getName</code> or <code>isInterface</code>
+     * @return the property name or null if the method is not a getter
+     */
+    static String getPropertyName(String methodName) {
+        if (methodName.length() > 3 && methodName.startsWith("get")) {
+            return StringUtils.uncapitalize(methodName.substring(3));
+        }
+        if (methodName.length() > 2 && methodName.startsWith("is")) {
+            return StringUtils.uncapitalize(methodName.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * The getter method of the property, returns the property value. The call with arguments is not the getter, it
+     * is passed to the method of the bean model.
+     */
+    private final class PropertyMethodModel implements TemplateMethodModelEx {
+
+        private final String methodName;
+
+        private final TemplateModel value;
+
+        private PropertyMethodModel(String methodName, TemplateModel value) {
+            this.methodName = methodName;
+            this.value = value;
+        }
+
+        @Override
+        public Object exec(List arguments) throws TemplateModelException {
+            if (arguments.isEmpty()) {
+                return value;
+            }
+            TemplateModel method = getBeanModel().get(methodName);
+            if (!(method instanceof TemplateMethodModelEx)) {
+                throw new TemplateModelException("The method " + methodName + " with " + arguments.size()
+                        + " arguments is not found in " + element);
+            }
+            return ((TemplateMethodModelEx) method).exec(arguments);
+        }
+    }
+
+}
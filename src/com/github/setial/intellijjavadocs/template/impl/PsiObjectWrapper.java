@@ -0,0 +1,43 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.intellij.psi.PsiElement;
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * The object wrapper of the javadoc templates. PSI elements are wrapped into {@link PsiElementModel} instead of
+ * reflective bean models, everything else is wrapped as by the default object wrapper.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class PsiObjectWrapper extends DefaultObjectWrapper {
+
+    /**
+     * Instantiates a new Psi object wrapper.
+     */
+    public PsiObjectWrapper() {
+        super(Configuration.VERSION_2_3_0);
+    }
+
+    @Override
+    protected TemplateModel handleUnknownType(Object obj) throws TemplateModelException {
+        if (obj instanceof PsiElement) {
+            return new PsiElementModel((PsiElement) obj, this);
+        }
+        return super.handleUnknownType(obj);
+    }
+
+    /**
+     * Wraps the object into the reflective bean model.
+     *
+     * @param obj the object
+     * @return the bean model
+     * @throws TemplateModelException the template model exception
+     */
+    TemplateModel wrapAsBean(Object obj) throws TemplateModelException {
+        return super.handleUnknownType(obj);
+    }
+
+}
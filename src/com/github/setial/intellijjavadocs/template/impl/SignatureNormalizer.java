@@ -0,0 +1,205 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The signature normalizer which builds template cache keys.
+ * <p>
+ * Identifiers that the selector regexps cannot tell apart are replaced by their shape: upper case letters become
+ * <code>X</code>, lower case letters <code>x</code> and digits <code>0</code>. So <code>public String getName()</code>
+ * and <code>public String getCode()</code> share one key as long as no regexp mentions <code>Name</code> or
+ * <code>Code</code>. Words written literally in the regexps (e.g. <code>get</code>, <code>main</code>) and java
+ * keywords are kept. When a regexp uses constructs that could see the difference (character classes, back
+ * references, flags, escaped code points) the signature is used as is.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class SignatureNormalizer {
+
+    private static final Set<String> KEYWORDS = new HashSet<String>(Arrays.asList("abstract", "assert", "boolean",
+            "break", "byte", "case", "catch", "char", "class", "const", "continue", "default", "do", "double", "else",
+            "enum", "extends", "final", "finally", "float", "for", "goto", "if", "implements", "import",
+            "instanceof", "int", "interface", "long", "native", "new", "package", "private", "protected", "public",
+            "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws",
+            "transient", "try", "void", "volatile", "while", "true", "false", "null"));
+
+    private static final String SHAPE_CHARACTERS = "xX0_$";
+
+    private final String[] vocabulary;
+
+    private final boolean abstractIdentifiers;
+
+    /**
+     * Instantiates a new Signature normalizer.
+     *
+     * @param regexps the selector regexps of one element kind
+     */
+    public SignatureNormalizer(@NotNull List<String> regexps) {
+        Set<String> words = new LinkedHashSet<String>();
+        boolean safe = true;
+        for (String regexp : regexps) {
+            safe = safe && collectWords(regexp, words);
+        }
+        for (String word : words) {
+            safe = safe && !isShapeOnly(word);
+        }
+        vocabulary = words.toArray(new String[words.size()]);
+        abstractIdentifiers = safe;
+    }
+
+    /**
+     * Normalizes the signature.
+     *
+     * @param signature the signature
+     * @return the cache key
+     */
+    @NotNull
+    public String normalize(@NotNull String signature) {
+        if (!abstractIdentifiers) {
+            return signature;
+        }
+        StringBuilder result = new StringBuilder(signature.length());
+        int i = 0;
+        while (i < signature.length()) {
+            char c = signature.charAt(i);
+            if (!Character.isJavaIdentifierPart(c)) {
+                result.append(c);
+                i++;
+                continue;
+            }
+            int end = i + 1;
+            while (end < signature.length() && Character.isJavaIdentifierPart(signature.charAt(end))) {
+                end++;
+            }
+            appendIdentifier(signature.substring(i, end), result);
+            i = end;
+        }
+        return result.toString();
+    }
+
+    private void appendIdentifier(String identifier, StringBuilder result) {
+        if (KEYWORDS.contains(identifier)) {
+            result.append(identifier);
+            return;
+        }
+        if (!containsVocabularyBeyond(identifier, 0)) {
+            appendShape(identifier, 0, result);
+            return;
+        }
+        // keep the longest literal prefix, e.g. "get" of "getName", if the rest cannot be seen by any regexp
+        int prefixLength = 0;
+        for (String word : vocabulary) {
+            if (word.length() > prefixLength && identifier.startsWith(word)) {
+                prefixLength = word.length();
+            }
+        }
+        if (prefixLength > 0 && !containsVocabularyBeyond(identifier, prefixLength)) {
+            StringBuilder candidate = new StringBuilder(identifier.length());
+            candidate.append(identifier, 0, prefixLength);
+            appendShape(identifier, prefixLength, candidate);
+            if (!containsVocabularyBeyond(candidate.toString(), prefixLength)) {
+                result.append(candidate);
+                return;
+            }
+        }
+        result.append(identifier);
+    }
+
+    private boolean containsVocabularyBeyond(String identifier, int prefixLength) {
+        for (String word : vocabulary) {
+            int index = identifier.indexOf(word);
+            while (index >= 0) {
+                if (index + word.length() > prefixLength) {
+                    return true;
+                }
+                index = identifier.indexOf(word, index + 1);
+            }
+        }
+        return false;
+    }
+
+    private static void appendShape(String identifier, int from, StringBuilder result) {
+        for (int i = from; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                result.append('X');
+            } else if (c >= 'a' && c <= 'z') {
+                result.append('x');
+            } else if (c >= '0' && c <= '9') {
+                result.append('0');
+            } else {
+                result.append(c);
+            }
+        }
+    }
+
+    private static boolean isShapeOnly(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (SHAPE_CHARACTERS.indexOf(word.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the words which are written literally in the regexp.
+     *
+     * @param regexp the regexp
+     * @param words  the words
+     * @return false if the regexp uses constructs that make identifier abstraction unsafe
+     */
+    private static boolean collectWords(String regexp, Set<String> words) {
+        StringBuilder word = new StringBuilder();
+        int i = 0;
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                char next = i + 1 < regexp.length() ? regexp.charAt(i + 1) : 0;
+                if ("xu0cNpPkQ123456789".indexOf(next) >= 0) {
+                    return false;
+                }
+                addWord(word, words);
+                i += 2;
+                continue;
+            }
+            if (c == '[' || (c == '(' && i + 1 < regexp.length() && regexp.charAt(i + 1) == '?')) {
+                return false;
+            }
+            if (c == '?' || c == '*' || c == '+' || c == '{') {
+                // the quantified character is a word on its own
+                if (word.length() > 0) {
+                    char last = word.charAt(word.length() - 1);
+                    word.setLength(word.length() - 1);
+                    addWord(word, words);
+                    words.add(String.valueOf(last));
+                }
+            } else if (isWordCharacter(c)) {
+                word.append(c);
+            } else {
+                addWord(word, words);
+            }
+            i++;
+        }
+        addWord(word, words);
+        return true;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static void addWord(StringBuilder word, Set<String> words) {
+        if (word.length() > 0) {
+            words.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+}
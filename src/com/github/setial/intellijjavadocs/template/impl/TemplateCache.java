@@ -0,0 +1,113 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.template.DocTemplate;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bounded LRU cache from normalized element signature to the selected template.
+ * <p>
+ * The cache is bound to the version of the templates: as soon as it is asked with a newer version all entries are
+ * dropped. The lookups with an older version, made by the threads which still hold the replaced templates, miss and
+ * do not move the cache back.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class TemplateCache {
+
+    private static final int MAX_KEY_LENGTH = 1024;
+
+    private final Map<String, DocTemplate> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private long version = -1;
+
+    /**
+     * Instantiates a new Template cache.
+     *
+     * @param capacity the maximum number of entries
+     */
+    public TemplateCache(final int capacity) {
+        entries = new LinkedHashMap<String, DocTemplate>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DocTemplate> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached template.
+     *
+     * @param templatesVersion the current templates version
+     * @param key              the normalized signature
+     * @return the template or null if there is no such entry
+     */
+    @Nullable
+    public synchronized DocTemplate get(long templatesVersion, @NotNull String key) {
+        if (templatesVersion > version) {
+            entries.clear();
+            version = templatesVersion;
+        }
+        DocTemplate result = templatesVersion == version ? entries.get(key) : null;
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Puts the template to the cache.
+     *
+     * @param templatesVersion the templates version the template was selected from
+     * @param key              the normalized signature
+     * @param template         the template
+     */
+    public synchronized void put(long templatesVersion, @NotNull String key, @NotNull DocTemplate template) {
+        if (version == templatesVersion && key.length() <= MAX_KEY_LENGTH) {
+            entries.put(key, template);
+        }
+    }
+
+    /**
+     * Gets the number of cache hits.
+     *
+     * @return the hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of cache misses.
+     *
+     * @return the misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return "TemplateCache{hits=" + getHits() + ", misses=" + getMisses() + ", size=" + size() + "}";
+    }
+
+}
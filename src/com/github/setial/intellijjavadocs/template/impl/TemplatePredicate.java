@@ -0,0 +1,322 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The structured template selector, an alternative to the signature regexp. The predicate is written in braces as
+ * whitespace separated conditions, all of them must hold:
+ * <pre>
+ * {kind=method visibility=public static return=void name=main params=1 paramTypes=String[]|String...}
+ * </pre>
+ * <ul>
+ * <li><code>kind</code> - <code>class</code>, <code>interface</code>, <code>enum</code>, <code>annotation</code>,
+ * <code>method</code>, <code>constructor</code>, <code>field</code>, <code>enumConstant</code></li>
+ * <li><code>visibility</code> - <code>public</code>, <code>protected</code>, <code>private</code>,
+ * <code>package</code></li>
+ * <li><code>static</code>, <code>final</code>, <code>abstract</code> - the modifier is set, or with
+ * <code>=false</code> not set</li>
+ * <li><code>name</code> - the name pattern, <code>*</code> matches any characters and <code>?</code> one character</li>
+ * <li><code>params</code> - the number of parameters</li>
+ * <li><code>paramTypes</code> - the comma separated parameter types</li>
+ * <li><code>return</code> or <code>type</code> - the return type of the method or the type of the field</li>
+ * </ul>
+ * The values of <code>kind</code>, <code>visibility</code>, <code>paramTypes</code>, <code>return</code> and
+ * <code>type</code> may list alternatives separated with <code>|</code>. The modifiers are the effective ones, e.g.
+ * interface fields are static. Types are compared by their presentable text without whitespaces. The predicate
+ * <code>{}</code> matches every element.
+ * <p>
+ * A leading brace is never a valid regexp, so the predicates and the regexps can be used side by side.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class TemplatePredicate {
+
+    private static final int ANY = -1;
+
+    private final String text;
+
+    private final int kinds;
+
+    private final int visibilities;
+
+    private final int requiredFlags;
+
+    private final int forbiddenFlags;
+
+    private final String namePattern;
+
+    private final int parametersCount;
+
+    private final String[][] parameterTypes;
+
+    private final String[] types;
+
+    private TemplatePredicate(String text, int kinds, int visibilities, int requiredFlags, int forbiddenFlags,
+            String namePattern, int parametersCount, String[][] parameterTypes, String[] types) {
+        this.text = text;
+        this.kinds = kinds;
+        this.visibilities = visibilities;
+        this.requiredFlags = requiredFlags;
+        this.forbiddenFlags = forbiddenFlags;
+        this.namePattern = namePattern;
+        this.parametersCount = parametersCount;
+        this.parameterTypes = parameterTypes;
+        this.types = types;
+    }
+
+    /**
+     * Checks if the template selector is a predicate.
+     *
+     * @param selector the template selector
+     * @return true if the selector is a predicate, false if it is a regexp
+     */
+    public static boolean isPredicate(@NotNull String selector) {
+        return selector.startsWith("{");
+    }
+
+    /**
+     * Parses the predicate.
+     *
+     * @param selector the template selector
+     * @return the predicate
+     * @throws IllegalArgumentException if the predicate is malformed
+     */
+    @NotNull
+    public static TemplatePredicate parse(@NotNull String selector) {
+        String trimmed = selector.trim();
+        if (!trimmed.startsWith("{") || !trimmed.endsWith("}")) {
+            throw new IllegalArgumentException("Predicate must be enclosed in braces: " + selector);
+        }
+        int kinds = 0;
+        int visibilities = 0;
+        int requiredFlags = 0;
+        int forbiddenFlags = 0;
+        String namePattern = null;
+        int parametersCount = ANY;
+        String[][] parameterTypes = null;
+        String[] types = null;
+        for (String condition : trimmed.substring(1, trimmed.length() - 1).trim().split("\\s+")) {
+            if (condition.isEmpty()) {
+                continue;
+            }
+            int separator = condition.indexOf('=');
+            String key = separator < 0 ? condition : condition.substring(0, separator);
+            String value = separator < 0 ? null : condition.substring(separator + 1);
+            if ("static".equals(key) || "final".equals(key) || "abstract".equals(key)) {
+                int flag = getModifierFlag(key);
+                if (value == null || "true".equals(value)) {
+                    requiredFlags |= flag;
+                } else if ("false".equals(value)) {
+                    forbiddenFlags |= flag;
+                } else {
+                    throw new IllegalArgumentException("Unknown value of " + key + ": " + value);
+                }
+                continue;
+            }
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Missing value of " + key + " in " + selector);
+            }
+            if ("kind".equals(key)) {
+                for (String alternative : value.split("\\|")) {
+                    kinds |= getKindFlag(alternative);
+                }
+            } else if ("visibility".equals(key)) {
+                for (String alternative : value.split("\\|")) {
+                    visibilities |= getVisibilityFlag(alternative);
+                }
+            } else if ("name".equals(key)) {
+                namePattern = value;
+            } else if ("params".equals(key)) {
+                try {
+                    parametersCount = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Wrong number of parameters: " + value, e);
+                }
+            } else if ("paramTypes".equals(key)) {
+                String[] alternatives = value.split("\\|");
+                parameterTypes = new String[alternatives.length][];
+                for (int i = 0; i < alternatives.length; i++) {
+                    parameterTypes[i] = alternatives[i].isEmpty() ? new String[0] : alternatives[i].split(",");
+                }
+            } else if ("return".equals(key) || "type".equals(key)) {
+                types = value.split("\\|");
+            } else {
+                throw new IllegalArgumentException("Unknown predicate condition: " + condition);
+            }
+        }
+        return new TemplatePredicate(selector, kinds, visibilities, requiredFlags, forbiddenFlags, namePattern,
+                parametersCount, parameterTypes, types);
+    }
+
+    /**
+     * Checks if the element satisfies the predicate.
+     *
+     * @param element the element facts
+     * @return true if all conditions hold
+     */
+    public boolean matches(@NotNull ElementFacts element) {
+        return matches(element.getFlags(), element.getName(), element.getType(), element.getParameterTypes());
+    }
+
+    /**
+     * Checks if the element properties satisfy the predicate.
+     *
+     * @param flags          the kind, visibility and modifier flags of {@link ElementFacts}
+     * @param name           the element name
+     * @param type           the type without whitespaces
+     * @param parameterTypes the parameter types without whitespaces
+     * @return true if all conditions hold
+     */
+    boolean matches(int flags, @Nullable String name, @Nullable String type, @NotNull String[] parameterTypes) {
+        if ((kinds != 0 && (flags & kinds) == 0)
+                || (visibilities != 0 && (flags & visibilities) == 0)
+                || (flags & requiredFlags) != requiredFlags
+                || (flags & forbiddenFlags) != 0
+                || (parametersCount != ANY && parameterTypes.length != parametersCount)) {
+            return false;
+        }
+        if (namePattern != null && (name == null || !matchesName(namePattern, name))) {
+            return false;
+        }
+        if (types != null && (type == null || !contains(types, type))) {
+            return false;
+        }
+        if (this.parameterTypes != null) {
+            boolean found = false;
+            for (String[] alternative : this.parameterTypes) {
+                found = found || equals(alternative, parameterTypes);
+            }
+            return found;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the whitespaces from the type text.
+     *
+     * @param text the type text
+     * @return the text without whitespaces
+     */
+    @NotNull
+    static String removeWhitespaces(@NotNull String text) {
+        StringBuilder result = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (result == null) {
+                    result = new StringBuilder(text.length());
+                    result.append(text, 0, i);
+                }
+            } else if (result != null) {
+                result.append(c);
+            }
+        }
+        return result == null ? text : result.toString();
+    }
+
+    /**
+     * Matches the name against the pattern with <code>*</code> and <code>?</code> wildcards.
+     *
+     * @param pattern the pattern
+     * @param name    the name
+     * @return true if the name matches
+     */
+    static boolean matchesName(String pattern, String name) {
+        int p = 0;
+        int n = 0;
+        int star = -1;
+        int starMatch = 0;
+        while (n < name.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == name.charAt(n))) {
+                p++;
+                n++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starMatch = n;
+            } else if (star >= 0) {
+                p = star + 1;
+                n = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (String candidate : values) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equals(String[] expected, String[] actual) {
+        if (expected.length != actual.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (!expected[i].equals(actual[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getKindFlag(String kind) {
+        if ("class".equals(kind)) {
+            return ElementFacts.CLASS;
+        } else if ("interface".equals(kind)) {
+            return ElementFacts.INTERFACE;
+        } else if ("enum".equals(kind)) {
+            return ElementFacts.ENUM;
+        } else if ("annotation".equals(kind)) {
+            return ElementFacts.ANNOTATION;
+        } else if ("method".equals(kind)) {
+            return ElementFacts.METHOD;
+        } else if ("constructor".equals(kind)) {
+            return ElementFacts.CONSTRUCTOR;
+        } else if ("field".equals(kind)) {
+            return ElementFacts.FIELD;
+        } else if ("enumConstant".equals(kind)) {
+            return ElementFacts.ENUM_CONSTANT;
+        }
+        throw new IllegalArgumentException("Unknown kind: " + kind);
+    }
+
+    private static int getVisibilityFlag(String visibility) {
+        if ("public".equals(visibility)) {
+            return ElementFacts.PUBLIC;
+        } else if ("protected".equals(visibility)) {
+            return ElementFacts.PROTECTED;
+        } else if ("private".equals(visibility)) {
+            return ElementFacts.PRIVATE;
+        } else if ("package".equals(visibility)) {
+            return ElementFacts.PACKAGE_LOCAL;
+        }
+        throw new IllegalArgumentException("Unknown visibility: " + visibility);
+    }
+
+    private static int getModifierFlag(String modifier) {
+        if ("static".equals(modifier)) {
+            return ElementFacts.STATIC;
+        } else if ("final".equals(modifier)) {
+            return ElementFacts.FINAL;
+        }
+        return ElementFacts.ABSTRACT;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+}
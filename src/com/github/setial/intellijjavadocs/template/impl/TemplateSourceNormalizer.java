@@ -0,0 +1,124 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The normalizer of the template sources. The rendered templates are always normalized by {@link NormalizingWriter},
+ * so the layout whitespaces of the literal template text (indentation, blank lines) never reach the javadoc. They are
+ * collapsed once, when the template is compiled: every run of whitespaces in the literal text becomes one line break
+ * if it contains any, otherwise one space. The lines are kept, so FreeMarker strips the lines with only directives
+ * exactly as before. Directives, interpolations and comments are copied as they are.
+ * <p>
+ * Templates using the directives which control whitespaces themselves (<code>&lt;#t&gt;</code>,
+ * <code>&lt;#compress&gt;</code>, <code>&lt;#noparse&gt;</code>, ...), user directives or the square bracket
+ * syntax are not changed.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class TemplateSourceNormalizer {
+
+    private static final String[] UNSUPPORTED = {
+            "<#t>", "<#t/>", "<#lt", "<#rt", "<#nt", "<#compress", "</#compress", "<#noparse", "<#ftl", "<@",
+            "[#", "[@", "<#include", "<#import"
+    };
+
+    /**
+     * Normalizes the template source.
+     *
+     * @param source the template source
+     * @return the normalized source, or the source itself if it can not be normalized safely
+     */
+    @NotNull
+    public static String normalize(@NotNull String source) {
+        for (String construct : UNSUPPORTED) {
+            if (source.contains(construct)) {
+                return source;
+            }
+        }
+        StringBuilder result = new StringBuilder(source.length());
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            int end;
+            if (source.startsWith("<#--", i)) {
+                end = source.indexOf("-->", i);
+                end = end < 0 ? source.length() : end + 3;
+            } else if (source.startsWith("<#", i) || source.startsWith("</#", i)) {
+                end = skipTag(source, i);
+            } else if ((c == '$' || c == '#') && i + 1 < source.length() && source.charAt(i + 1) == '{') {
+                end = skipInterpolation(source, i);
+            } else if (NormalizingWriter.isWhitespace(c)) {
+                end = i;
+                boolean lineBreak = false;
+                while (end < source.length() && NormalizingWriter.isWhitespace(source.charAt(end))) {
+                    lineBreak = lineBreak || source.charAt(end) == '\n' || source.charAt(end) == '\r';
+                    end++;
+                }
+                result.append(lineBreak ? '\n' : ' ');
+                i = end;
+                continue;
+            } else {
+                result.append(c);
+                i++;
+                continue;
+            }
+            if (end < 0) {
+                // unterminated construct, let FreeMarker report it on the original source
+                return source;
+            }
+            result.append(source, i, end);
+            i = end;
+        }
+        return result.toString();
+    }
+
+    private static int skipTag(String source, int start) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = start; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (c == '>' && depth <= 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipInterpolation(String source, int start) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = start + 1; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private TemplateSourceNormalizer() {
+    }
+
+}
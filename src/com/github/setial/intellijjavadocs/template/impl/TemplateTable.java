@@ -0,0 +1,296 @@
+package com.github.setial.intellijjavadocs.template.impl;
+
+import com.github.setial.intellijjavadocs.template.DocTemplate;
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * The immutable ordered table of templates with their precompiled selectors. A selector is either a
+ * {@link TemplatePredicate} evaluated against the element properties, or a regexp matched against the element
+ * signature. The signature is built only when a regexp row is reached; all regexp selectors are then evaluated
+ * together: the {@link LiteralPrefilter} scans the signature once and only the selectors that can still match are
+ * run.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class TemplateTable {
+
+    // declared before EMPTY, which takes the first version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    /**
+     * The constant EMPTY.
+     */
+    public static final TemplateTable EMPTY = new TemplateTable(new LinkedHashMap<String, DocTemplate>());
+
+    private static final Logger LOGGER = Logger.getInstance(TemplateTable.class);
+
+    private static final int PATTERN_FLAGS = Pattern.DOTALL | Pattern.MULTILINE;
+
+    // character reads allowed per regexp match, enough for any sane selector on a long signature
+    private static final int MATCH_BUDGET = 1000000;
+
+    private static final int MAX_REPORTED_SIGNATURE_LENGTH = 200;
+
+    private final List<Row> rows;
+
+    private final LiteralPrefilter prefilter;
+
+    private final SignatureNormalizer normalizer;
+
+    private final boolean predicates;
+
+    private final Map<String, String> sources;
+
+    private final long version = VERSIONS.incrementAndGet();
+
+    /**
+     * Instantiates a new Template table. The iteration order of the map defines the matching order.
+     *
+     * @param templates the templates, key: regexp, value: template
+     */
+    public TemplateTable(@NotNull Map<String, DocTemplate> templates) {
+        List<Row> result = new ArrayList<Row>(templates.size());
+        // the prefilter is indexed by rows, the predicate rows get no literals
+        List<String> prefilterRegexps = new ArrayList<String>(templates.size());
+        List<String> regexps = new ArrayList<String>(templates.size());
+        Map<String, String> templateSources = new LinkedHashMap<String, String>();
+        for (Entry<String, DocTemplate> entry : templates.entrySet()) {
+            String selector = entry.getKey();
+            templateSources.put(selector, entry.getValue().getSource());
+            if (TemplatePredicate.isPredicate(selector)) {
+                result.add(new Row(selector, null, TemplatePredicate.parse(selector), entry.getValue()));
+                prefilterRegexps.add("");
+            } else {
+                result.add(new Row(selector, Pattern.compile(selector, PATTERN_FLAGS), null, entry.getValue()));
+                prefilterRegexps.add(selector);
+                regexps.add(selector);
+            }
+        }
+        rows = Collections.unmodifiableList(result);
+        prefilter = new LiteralPrefilter(prefilterRegexps);
+        normalizer = new SignatureNormalizer(regexps);
+        predicates = regexps.size() < result.size();
+        sources = Collections.unmodifiableMap(templateSources);
+    }
+
+    /**
+     * Finds the first template which selector matches the element.
+     *
+     * @param element the element facts
+     * @return the template or null if nothing matches
+     */
+    @Nullable
+    public DocTemplate findFirst(@NotNull ElementFacts element) {
+        int index = findFirstIndex(element);
+        return index < 0 ? null : rows.get(index).getTemplate();
+    }
+
+    /**
+     * Finds the index of the first row which selector matches the element.
+     *
+     * @param element the element facts
+     * @return the row index or -1 if nothing matches
+     */
+    public int findFirstIndex(@NotNull ElementFacts element) {
+        String signature = null;
+        BitSet candidates = null;
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (row.getPredicate() != null) {
+                if (row.getPredicate().matches(element)) {
+                    return i;
+                }
+                continue;
+            }
+            if (candidates == null) {
+                signature = element.getSignature();
+                candidates = prefilter.findCandidates(signature);
+            }
+            if (candidates.get(i) && matches(row, signature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(Row row, String signature) {
+        try {
+            return row.getPattern().matcher(new BudgetedCharSequence(signature, MATCH_BUDGET)).matches();
+        } catch (MatchBudgetExceededException e) {
+            LOGGER.warn("Template " + row.getRegexp() + " is skipped, its regexp exceeded the match budget on "
+                    + "element: " + StringUtils.abbreviate(signature, MAX_REPORTED_SIGNATURE_LENGTH));
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the table has predicate selectors. The selection result of such tables depends on more than the
+     * element signature.
+     *
+     * @return true if at least one selector is a predicate
+     */
+    public boolean hasPredicates() {
+        return predicates;
+    }
+
+    /**
+     * Gets the version of the table. Each new table has the greater version than the tables created before it, the
+     * version is published together with the table, so the cached selections of the replaced table are never used.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the normalizer of the element signatures for the selectors of this table.
+     *
+     * @return the signature normalizer
+     */
+    @NotNull
+    public SignatureNormalizer getNormalizer() {
+        return normalizer;
+    }
+
+    /**
+     * Gets the source texts of the templates in matching order.
+     *
+     * @return the sources, key: selector, value: template source
+     */
+    @NotNull
+    public Map<String, String> getSources() {
+        return sources;
+    }
+
+    /**
+     * Gets the rows in matching order.
+     *
+     * @return the rows
+     */
+    @NotNull
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    /**
+     * The char sequence which limits the number of character reads, so a backtracking regexp fails fast instead of
+     * freezing the caller.
+     */
+    private static final class BudgetedCharSequence implements CharSequence {
+
+        private final String text;
+
+        private int budget;
+
+        private BudgetedCharSequence(String text, int budget) {
+            this.text = text;
+            this.budget = budget;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--budget < 0) {
+                throw new MatchBudgetExceededException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private static final class MatchBudgetExceededException extends RuntimeException {
+
+        private MatchBudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The row of the template table.
+     */
+    public static final class Row {
+
+        private final String regexp;
+
+        private final Pattern pattern;
+
+        private final TemplatePredicate predicate;
+
+        private final DocTemplate template;
+
+        private Row(String regexp, Pattern pattern, TemplatePredicate predicate, DocTemplate template) {
+            this.regexp = regexp;
+            this.pattern = pattern;
+            this.predicate = predicate;
+            this.template = template;
+        }
+
+        /**
+         * Gets the selector, the regexp or the predicate text.
+         *
+         * @return the regexp
+         */
+        @NotNull
+        public String getRegexp() {
+            return regexp;
+        }
+
+        /**
+         * Gets the compiled pattern.
+         *
+         * @return the pattern or null if the selector is a predicate
+         */
+        @Nullable
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        /**
+         * Gets the predicate.
+         *
+         * @return the predicate or null if the selector is a regexp
+         */
+        @Nullable
+        public TemplatePredicate getPredicate() {
+            return predicate;
+        }
+
+        /**
+         * Gets the template.
+         *
+         * @return the template
+         */
+        @NotNull
+        public DocTemplate getTemplate() {
+            return template;
+        }
+    }
+
+}
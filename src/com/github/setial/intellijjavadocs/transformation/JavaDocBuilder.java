@@ -20,13 +20,23 @@ import java.util.regex.Pattern;
  */
 public class JavaDocBuilder {
 
-    private StringBuilder builder;
+    private final StringBuilder builder;
 
     /**
      * Instantiates a new Java doc builder.
      */
     public JavaDocBuilder() {
-        builder = new StringBuilder();
+        this(new StringBuilder());
+    }
+
+    /**
+     * Instantiates a new Java doc builder which appends the javadoc to the given buffer, e.g. the pooled
+     * {@link com.github.setial.intellijjavadocs.utils.RenderBuffer} buffer.
+     *
+     * @param builder the buffer
+     */
+    public JavaDocBuilder(@NotNull StringBuilder builder) {
+        this.builder = builder;
     }
 
     /**
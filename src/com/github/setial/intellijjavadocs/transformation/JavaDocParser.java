@@ -0,0 +1,429 @@
+package com.github.setial.intellijjavadocs.transformation;
+
+import com.github.setial.intellijjavadocs.model.JavaDoc;
+import com.github.setial.intellijjavadocs.model.JavaDocTag;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parser of the javadoc text into the {@link JavaDoc} model, without building the PSI tree.
+ * <p>
+ * The text is split into the tokens as the IDE javadoc lexer splits it: the leading asterisks, the whitespaces, the
+ * comment data, the tag names, the tag values and the inline tag borders. The tokens are grouped into the same
+ * elements as in the PSI tree of the comment, so the model is the same as the one built by
+ * {@link com.github.setial.intellijjavadocs.utils.JavaDocUtils#createJavaDoc(com.intellij.psi.javadoc.PsiDocComment)}.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class JavaDocParser {
+
+    private static final int SPACE = 0;
+    private static final int DATA = 1;
+    private static final int ASTERISKS = 2;
+    private static final int TAG_NAME = 3;
+    private static final int INLINE_START = 4;
+    private static final int INLINE_END = 5;
+    private static final int VALUE = 6;
+    private static final int SHARP = 7;
+    private static final int LPAREN = 8;
+    private static final int RPAREN = 9;
+    private static final int COMMA = 10;
+    private static final int LT = 11;
+    private static final int GT = 12;
+    private static final int BAD = 13;
+
+    private static final int COMMENT_DATA_START = 0;
+    private static final int COMMENT_DATA = 1;
+    private static final int TAG_SPACE = 2;
+    private static final int PARAM_TAG_SPACE = 3;
+    private static final int TAG_VALUE = 4;
+    private static final int TAG_VALUE_IN_PAREN = 5;
+    private static final int TAG_VALUE_IN_LTGT = 6;
+    private static final int INLINE_TAG_NAME = 7;
+
+    // the kinds of the tag data elements, as the PSI element classes
+    private static final int TEXT_ELEMENT = 0;
+    private static final int VALUE_ELEMENT = 1;
+    private static final int PARAM_REF_ELEMENT = 2;
+    private static final int METHOD_REF_ELEMENT = 3;
+
+    private static final String PARAM_TAG = "@param";
+    private static final String SEE_TAG = "@see";
+
+    private final String text;
+
+    private final int end;
+
+    private int[] types = new int[32];
+
+    private int[] starts = new int[32];
+
+    private int[] ends = new int[32];
+
+    private int count;
+
+    private JavaDocParser(String text, int end) {
+        this.text = text;
+        this.end = end;
+    }
+
+    /**
+     * Parses the javadoc text. The malformed text, i.e. not the single terminated comment or the comment with the
+     * tokens the IDE lexer marks as bad, is not parsed, as the PSI parser recovers from it in its own way.
+     *
+     * @param javaDocText the javadoc text, starting with <code>/**</code> and ending with <code>*&#47;</code>
+     * @return the Java doc or null if the text is malformed and should be parsed by the PSI parser
+     */
+    @Nullable
+    public static JavaDoc parse(@NotNull String javaDocText) {
+        String text = javaDocText.trim();
+        int last = text.length() - 2;
+        if (!text.startsWith("/**") || last < 3 || text.indexOf("*/", 2) != last) {
+            return null;
+        }
+        // the closing token takes all the asterisks before the slash
+        int end = last;
+        while (end > 3 && text.charAt(end - 1) == '*') {
+            end--;
+        }
+        JavaDocParser parser = new JavaDocParser(text, end);
+        parser.tokenize();
+        for (int i = 0; i < parser.count; i++) {
+            if (parser.types[i] == BAD) {
+                return null;
+            }
+        }
+        return parser.createJavaDoc();
+    }
+
+    private JavaDoc createJavaDoc() {
+        List<String> description = new LinkedList<String>();
+        int i = 0;
+        while (i < count && types[i] != TAG_NAME) {
+            if (types[i] == ASTERISKS) {
+                i++;
+                continue;
+            }
+            int next = types[i] == INLINE_START ? parseInlineTag(i) : i + 1;
+            description.add(text.substring(starts[i], ends[next - 1]));
+            i = next;
+        }
+        Map<String, List<JavaDocTag>> tags = new LinkedHashMap<String, List<JavaDocTag>>();
+        while (i < count) {
+            String name = getText(i).substring(1);
+            List<int[]> elements = new LinkedList<int[]>();
+            i = parseTag(i, elements);
+            if (!tags.containsKey(name)) {
+                tags.put(name, new LinkedList<JavaDocTag>());
+            }
+            tags.get(name).add(createJavaDocTag(elements));
+        }
+        return new JavaDoc(description, tags);
+    }
+
+    private JavaDocTag createJavaDocTag(List<int[]> elements) {
+        String refParam = null;
+        String value = null;
+        for (int[] element : elements) {
+            if (refParam == null && (element[0] == PARAM_REF_ELEMENT || element[0] == METHOD_REF_ELEMENT)) {
+                refParam = text.substring(element[1], element[2]);
+            }
+            if (value == null && element[0] != TEXT_ELEMENT) {
+                value = text.substring(element[1], element[2]);
+            }
+        }
+        // only the param references and the plain values are cut off the description, as in the PSI based model
+        StringBuilder description = new StringBuilder();
+        for (int[] element : elements) {
+            String elementText = text.substring(element[1], element[2]);
+            if (!(element[0] == PARAM_REF_ELEMENT && elementText.equals(refParam))
+                    && !(element[0] == VALUE_ELEMENT && elementText.equals(value))) {
+                description.append(elementText);
+            }
+        }
+        return new JavaDocTag(refParam, value, new LinkedList<String>(Arrays.asList(description.toString())));
+    }
+
+    private int parseTag(int tagName, List<int[]> elements) {
+        String name = getText(tagName);
+        int i = tagName + 1;
+        while (i < count && types[i] != TAG_NAME) {
+            int type = types[i];
+            if (type == SPACE || type == ASTERISKS) {
+                i++;
+            } else if (type == INLINE_START) {
+                int next = parseInlineTag(i);
+                elements.add(new int[]{TEXT_ELEMENT, starts[i], ends[next - 1]});
+                i = next;
+            } else if (isTagValue(type)) {
+                i = parseTagValue(i, name, elements);
+            } else {
+                elements.add(new int[]{TEXT_ELEMENT, starts[i], ends[i]});
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private int parseTagValue(int i, String tagName, List<int[]> elements) {
+        int next = i + 1;
+        int kind = VALUE_ELEMENT;
+        if (PARAM_TAG.equals(tagName)) {
+            kind = PARAM_REF_ELEMENT;
+            for (int j = next; j < count && isTagValue(types[j]) || isWhiteSpace(j); j++) {
+                if (!isWhiteSpace(j)) {
+                    next = j + 1;
+                }
+            }
+        } else if (SEE_TAG.equals(tagName)) {
+            int sharp = types[i] == SHARP ? i : types[i] == VALUE ? skipWhiteSpaces(i + 1) : -1;
+            if (sharp >= 0 && sharp < count && types[sharp] == SHARP) {
+                kind = METHOD_REF_ELEMENT;
+                next = parseMethodRef(sharp + 1);
+            }
+        }
+        elements.add(new int[]{kind, starts[i], ends[next - 1]});
+        return next;
+    }
+
+    private int parseMethodRef(int i) {
+        int next = i;
+        int j = skipWhiteSpaces(i);
+        if (j < count && types[j] == VALUE) {
+            next = j + 1;
+            j = skipWhiteSpaces(j + 1);
+        }
+        if (j < count && types[j] == LPAREN) {
+            next = j + 1;
+            j = skipWhiteSpaces(j + 1);
+            while (j < count && isTagValue(types[j]) && types[j] != RPAREN) {
+                next = j + 1;
+                j = skipWhiteSpaces(j + 1);
+            }
+            if (j < count && types[j] == RPAREN) {
+                next = j + 1;
+            }
+        }
+        return next;
+    }
+
+    private int parseInlineTag(int start) {
+        int tagName = skipWhiteSpaces(start + 1);
+        if (tagName >= count || types[tagName] != TAG_NAME && types[tagName] != BAD) {
+            // not a tag, the brace is the comment data
+            return start + 1;
+        }
+        // the tag ends at the matching brace or at the last token which is not a whitespace
+        int next = start + 1;
+        int braceScope = 1;
+        for (int i = start + 1; i < count; i++) {
+            if (!isWhiteSpace(i)) {
+                next = i + 1;
+            }
+            if (types[i] == INLINE_START) {
+                braceScope++;
+            } else if (types[i] == INLINE_END && --braceScope == 0) {
+                break;
+            }
+        }
+        return next;
+    }
+
+    private int skipWhiteSpaces(int i) {
+        while (i < count && isWhiteSpace(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isWhiteSpace(int i) {
+        return i < count && (types[i] == SPACE || types[i] == ASTERISKS);
+    }
+
+    private static boolean isTagValue(int type) {
+        return type >= VALUE && type <= GT;
+    }
+
+    private String getText(int i) {
+        return text.substring(starts[i], ends[i]);
+    }
+
+    private void tokenize() {
+        int state = COMMENT_DATA_START;
+        boolean afterLineBreak = false;
+        boolean inLeadingSpace = false;
+        int position = 3;
+        while (position < end) {
+            int tokenEnd;
+            if (afterLineBreak) {
+                afterLineBreak = false;
+                inLeadingSpace = true;
+                tokenEnd = position;
+                while (tokenEnd < end && text.charAt(tokenEnd) == '*') {
+                    tokenEnd++;
+                }
+                if (tokenEnd > position) {
+                    addToken(ASTERISKS, position, tokenEnd);
+                    position = tokenEnd;
+                    continue;
+                }
+            }
+            if (inLeadingSpace) {
+                // the whitespaces after the leading asterisks
+                inLeadingSpace = false;
+                boolean lineBreak = false;
+                tokenEnd = position;
+                while (tokenEnd < end && Character.isWhitespace(text.charAt(tokenEnd))) {
+                    lineBreak |= text.charAt(tokenEnd) == '\n';
+                    tokenEnd++;
+                }
+                int previousState = state;
+                if (state == COMMENT_DATA || tokenEnd < end && "@{\"<".indexOf(text.charAt(tokenEnd)) >= 0) {
+                    state = COMMENT_DATA_START;
+                }
+                if (tokenEnd > position) {
+                    boolean space = lineBreak || previousState == PARAM_TAG_SPACE || previousState == TAG_SPACE
+                            || previousState == INLINE_TAG_NAME || previousState == TAG_VALUE_IN_PAREN;
+                    addToken(space ? SPACE : DATA, position, tokenEnd);
+                    afterLineBreak = lineBreak;
+                    position = tokenEnd;
+                    continue;
+                }
+            }
+            char c = text.charAt(position);
+            int type;
+            tokenEnd = position + 1;
+            if (isDocSpace(c) && state != COMMENT_DATA && state != TAG_VALUE_IN_LTGT && state != INLINE_TAG_NAME) {
+                tokenEnd = skipDocSpaces(position);
+                type = SPACE;
+                if (state == TAG_SPACE) {
+                    char next = tokenEnd < end ? text.charAt(tokenEnd) : '*';
+                    state = next == '<' || next == '"' || next == '{' ? COMMENT_DATA : TAG_VALUE;
+                } else if (state == PARAM_TAG_SPACE) {
+                    state = TAG_VALUE;
+                } else if (state == TAG_VALUE) {
+                    state = COMMENT_DATA;
+                }
+            } else if (c == '{' && position + 1 < end && text.charAt(position + 1) == '@'
+                    && (state == COMMENT_DATA_START || state == COMMENT_DATA || state == TAG_VALUE)) {
+                type = INLINE_START;
+                state = INLINE_TAG_NAME;
+            } else if (c == '}' && (state == COMMENT_DATA_START || state == COMMENT_DATA || state == TAG_SPACE
+                    || state == TAG_VALUE)) {
+                type = INLINE_END;
+                state = COMMENT_DATA;
+            } else if (c == '@' && (state == COMMENT_DATA_START || state == INLINE_TAG_NAME)) {
+                while (tokenEnd < end && !isDocSpace(text.charAt(tokenEnd))
+                        && (state == COMMENT_DATA_START || text.charAt(tokenEnd) != '}')) {
+                    tokenEnd++;
+                }
+                if (tokenEnd > position + 1) {
+                    type = TAG_NAME;
+                    state = text.startsWith(PARAM_TAG, position) && tokenEnd - position == PARAM_TAG.length()
+                            ? PARAM_TAG_SPACE : TAG_SPACE;
+                } else if (state == COMMENT_DATA_START) {
+                    type = DATA;
+                    state = COMMENT_DATA;
+                } else {
+                    type = BAD;
+                }
+            } else if (state == COMMENT_DATA_START || state == COMMENT_DATA) {
+                type = DATA;
+                if (c == '\n' || c == '\r') {
+                    while (tokenEnd < end && (text.charAt(tokenEnd) == '\n' || text.charAt(tokenEnd) == '\r')) {
+                        tokenEnd++;
+                    }
+                    tokenEnd = skipDocSpaces(tokenEnd);
+                    type = SPACE;
+                } else if (state == COMMENT_DATA && (c == ' ' || c == '\t' || c == '\f')) {
+                    while (tokenEnd < end && " \t\f".indexOf(text.charAt(tokenEnd)) >= 0) {
+                        tokenEnd++;
+                    }
+                }
+                state = COMMENT_DATA;
+            } else if (state == TAG_VALUE || state == TAG_VALUE_IN_PAREN) {
+                if (isValueChar(c)) {
+                    while (tokenEnd < end && isValueChar(text.charAt(tokenEnd))) {
+                        tokenEnd++;
+                    }
+                    type = VALUE;
+                } else if (state == TAG_VALUE) {
+                    type = c == '(' ? LPAREN : c == '#' ? SHARP : c == '<' ? LT : DATA;
+                    state = c == '(' ? TAG_VALUE_IN_PAREN : c == '<' ? TAG_VALUE_IN_LTGT
+                            : c == '#' ? TAG_VALUE : COMMENT_DATA;
+                } else if (c == ')') {
+                    type = RPAREN;
+                    state = TAG_VALUE;
+                } else {
+                    type = c == ',' ? COMMA : BAD;
+                }
+            } else if (state == TAG_VALUE_IN_LTGT && Character.isJavaIdentifierStart(c)) {
+                while (tokenEnd < end && (Character.isJavaIdentifierStart(text.charAt(tokenEnd))
+                        || isDigit(text.charAt(tokenEnd)) || ":.-".indexOf(text.charAt(tokenEnd)) >= 0)) {
+                    tokenEnd++;
+                }
+                type = VALUE;
+            } else if (state == TAG_VALUE_IN_LTGT && c == '>') {
+                type = GT;
+                state = COMMENT_DATA;
+            } else {
+                type = BAD;
+            }
+            addToken(type, position, tokenEnd);
+            afterLineBreak = type == SPACE && containsLineBreak(position, tokenEnd);
+            position = tokenEnd;
+        }
+    }
+
+    private void addToken(int type, int start, int tokenEnd) {
+        // the adjacent data and whitespace tokens are merged
+        if (count > 0 && types[count - 1] == type && (type == DATA || type == SPACE)) {
+            ends[count - 1] = tokenEnd;
+            return;
+        }
+        if (count == types.length) {
+            types = Arrays.copyOf(types, count * 2);
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        types[count] = type;
+        starts[count] = start;
+        ends[count] = tokenEnd;
+        count++;
+    }
+
+    private int skipDocSpaces(int position) {
+        while (position < end && isDocSpace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private boolean containsLineBreak(int start, int tokenEnd) {
+        for (int i = start; i < tokenEnd; i++) {
+            if (text.charAt(i) == '\n' || text.charAt(i) == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDocSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\f' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isValueChar(char c) {
+        return Character.isJavaIdentifierStart(c) || isDigit(c) || c == '.' || c == '[' || c == ']';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
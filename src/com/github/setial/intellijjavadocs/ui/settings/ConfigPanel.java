@@ -3,8 +3,12 @@ package com.github.setial.intellijjavadocs.ui.settings;
 import com.github.setial.intellijjavadocs.model.settings.JavaDocSettings;
 import com.github.setial.intellijjavadocs.model.settings.Level;
 import com.github.setial.intellijjavadocs.model.settings.Mode;
+import com.github.setial.intellijjavadocs.model.settings.TemplateSettings;
 import com.github.setial.intellijjavadocs.model.settings.Visibility;
+import com.github.setial.intellijjavadocs.template.impl.TemplatePredicate;
 import com.github.setial.intellijjavadocs.ui.component.TemplatesTable;
+import com.github.setial.intellijjavadocs.utils.RegexUtils;
+import com.intellij.openapi.options.ConfigurationException;
 import com.intellij.ui.IdeBorderFactory;
 import com.intellij.ui.ToolbarDecorator;
 import com.intellij.uiDesigner.core.GridConstraints;
@@ -115,6 +119,22 @@ public class ConfigPanel extends JPanel {
         return result;
     }
 
+    /**
+     * Validates the template selectors added or changed in the form before they are applied. The stored selectors
+     * are not checked, so the old settings can still be applied. The slow selectors are only logged when the
+     * templates are set up.
+     *
+     * @throws ConfigurationException if a new selector regexp can backtrack exponentially
+     */
+    public void validateTemplates() throws ConfigurationException {
+        TemplateSettings templateSettings = settings.getTemplateSettings();
+        validateTemplates(classTemplatesTable.getSettings(), templateSettings.getClassTemplates(), "class");
+        validateTemplates(constructorTemplatesTable.getSettings(), templateSettings.getConstructorTemplates(),
+                "constructor");
+        validateTemplates(methodTemplatesTable.getSettings(), templateSettings.getMethodTemplates(), "method");
+        validateTemplates(fieldTemplatesTable.getSettings(), templateSettings.getFieldTemplates(), "field");
+    }
+
     /**
      * Apply settings to the form.
      */
@@ -226,6 +246,20 @@ public class ConfigPanel extends JPanel {
     public void disposeUIResources() {
     }
 
+    private void validateTemplates(Map<String, String> templates, Map<String, String> storedTemplates,
+                                   String elementName) throws ConfigurationException {
+        for (String selector : templates.keySet()) {
+            if (TemplatePredicate.isPredicate(selector) || storedTemplates.containsKey(selector)) {
+                continue;
+            }
+            String problem = RegexUtils.findBacktrackingProblem(selector);
+            if (problem != null) {
+                throw new ConfigurationException("The " + elementName + " template " + selector
+                        + " can freeze the IDE. " + problem + ", use a predicate or a simpler regexp.");
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private boolean checkIfTableContentModified(Map<String, String> templatesTableSettings,
                                                 Map<String, String> templatesSettings) {
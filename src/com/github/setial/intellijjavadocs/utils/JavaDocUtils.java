@@ -3,6 +3,7 @@ package com.github.setial.intellijjavadocs.utils;
 import com.github.setial.intellijjavadocs.model.JavaDoc;
 import com.github.setial.intellijjavadocs.model.JavaDocTag;
 import com.github.setial.intellijjavadocs.transformation.JavaDocBuilder;
+import com.github.setial.intellijjavadocs.transformation.JavaDocParser;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.impl.source.javadoc.PsiDocMethodOrFieldRef;
@@ -33,6 +34,9 @@ public class JavaDocUtils {
 
     private static final List<String> MERGE_TAG_NAMES = Arrays.asList("param", "throws");
 
+    // the whole javadoc sections, the buffers which grew over 64k are not kept
+    private static final RenderBuffer RENDER_BUFFER = new RenderBuffer(512, 64 * 1024);
+
     /**
      * Convert java doc.
      *
@@ -41,9 +45,14 @@ public class JavaDocUtils {
      */
     @NotNull
     public static String convertJavaDoc(@NotNull JavaDoc javadoc) {
-        JavaDocBuilder builder = new JavaDocBuilder();
-        builder.createDefaultJavaDoc(javadoc);
-        return builder.build();
+        StringBuilder buffer = RENDER_BUFFER.acquire();
+        try {
+            new JavaDocBuilder(buffer).createDefaultJavaDoc(javadoc);
+        } catch (RuntimeException e) {
+            RENDER_BUFFER.recycle(buffer);
+            throw e;
+        }
+        return RENDER_BUFFER.release(buffer);
     }
 
     /**
@@ -249,7 +258,8 @@ public class JavaDocUtils {
     }
 
     /**
-     * Converts string to java doc.
+     * Converts string to java doc. The text is parsed by {@link JavaDocParser} into the model directly, without the
+     * PSI tree; the malformed text is parsed into the PSI tree as before.
      *
      * @param javaDocText       the Java doc text
      * @param psiElementFactory the Psi element factory
@@ -259,8 +269,10 @@ public class JavaDocUtils {
     public static JavaDoc toJavaDoc(@Nullable String javaDocText, @NotNull PsiElementFactory psiElementFactory) {
         JavaDoc result = null;
         if (StringUtils.isNotBlank(javaDocText)) {
-            PsiDocComment javaDocComment = psiElementFactory.createDocCommentFromText(javaDocText);
-            result = createJavaDoc(javaDocComment);
+            result = JavaDocParser.parse(javaDocText);
+            if (result == null) {
+                result = createJavaDoc(psiElementFactory.createDocCommentFromText(javaDocText));
+            }
         }
         return result;
     }
@@ -0,0 +1,164 @@
+package com.github.setial.intellijjavadocs.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedList;
+
+/**
+ * The type Regex utils.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class RegexUtils {
+
+    private static final int MAX_WILDCARDS = 3;
+
+    /**
+     * Finds the structure which makes the regexp backtrack exponentially: an unbounded quantifier applied to a group
+     * that already contains an unbounded quantifier, e.g. <code>(\w(\s*&lt;.+&gt;)*)+</code> or <code>(a+)*</code>.
+     * Possessive quantifiers and atomic groups are not reported.
+     *
+     * @param regexp the regexp
+     * @return the problem description or null if the regexp looks safe
+     */
+    @Nullable
+    public static String findBacktrackingProblem(@NotNull String regexp) {
+        // one entry per open group: does the group contain an unbounded quantifier
+        LinkedList<Boolean> groups = new LinkedList<Boolean>();
+        LinkedList<Integer> groupStarts = new LinkedList<Integer>();
+        int i = 0;
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipCharacterClass(regexp, i);
+                continue;
+            }
+            if (c == '(') {
+                groups.push(Boolean.FALSE);
+                groupStarts.push(i);
+                i++;
+                continue;
+            }
+            if (c == ')' && !groups.isEmpty()) {
+                boolean nested = groups.pop();
+                int start = groupStarts.pop();
+                boolean atomic = regexp.startsWith("(?>", start);
+                int quantifierEnd = skipQuantifier(regexp, i + 1);
+                boolean unbounded = isUnbounded(regexp, i + 1, quantifierEnd);
+                boolean possessive = quantifierEnd < regexp.length() && regexp.charAt(quantifierEnd) == '+'
+                        && quantifierEnd > i + 1;
+                if (nested && unbounded && !atomic && !possessive) {
+                    return "Nested unbounded quantifiers in " + regexp.substring(start, quantifierEnd)
+                            + " can backtrack exponentially";
+                }
+                if (!groups.isEmpty() && !atomic && (nested || unbounded)) {
+                    groups.set(0, Boolean.TRUE);
+                }
+                i = possessive ? quantifierEnd + 1 : quantifierEnd;
+                continue;
+            }
+            int quantifierEnd = skipQuantifier(regexp, i);
+            if (quantifierEnd > i) {
+                boolean possessive = quantifierEnd < regexp.length() && regexp.charAt(quantifierEnd) == '+';
+                if (!groups.isEmpty() && isUnbounded(regexp, i, quantifierEnd) && !possessive) {
+                    groups.set(0, Boolean.TRUE);
+                }
+                i = possessive ? quantifierEnd + 1 : quantifierEnd;
+                continue;
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the regexp with three or more unbounded wildcards, e.g. <code>^.*(public)*.*(\w\s\w)+.+</code>. The
+     * wildcards split the text between them in every possible way, which is polynomial of high degree on the long
+     * signatures. Such regexp is slow rather than freezing, so the problem is worth a warning only.
+     *
+     * @param regexp the regexp
+     * @return the problem description or null if the regexp has few unbounded wildcards
+     */
+    @Nullable
+    public static String findSlowMatchingProblem(@NotNull String regexp) {
+        int wildcards = 0;
+        int i = 0;
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '[') {
+                i = skipCharacterClass(regexp, i);
+            } else if (c == '.') {
+                int quantifierEnd = skipQuantifier(regexp, i + 1);
+                boolean possessive = quantifierEnd < regexp.length() && regexp.charAt(quantifierEnd) == '+'
+                        && quantifierEnd > i + 1;
+                if (isUnbounded(regexp, i + 1, quantifierEnd) && !possessive) {
+                    wildcards++;
+                }
+                i = quantifierEnd;
+            } else {
+                i++;
+            }
+        }
+        if (wildcards >= MAX_WILDCARDS) {
+            return wildcards + " unbounded wildcards in " + regexp + " can backtrack polynomially";
+        }
+        return null;
+    }
+
+    private static int skipQuantifier(String regexp, int start) {
+        if (start >= regexp.length()) {
+            return start;
+        }
+        char c = regexp.charAt(start);
+        if (c == '*' || c == '+' || c == '?') {
+            return start + 1;
+        }
+        if (c == '{') {
+            int end = regexp.indexOf('}', start);
+            return end < 0 ? start : end + 1;
+        }
+        return start;
+    }
+
+    private static boolean isUnbounded(String regexp, int start, int end) {
+        if (end <= start) {
+            return false;
+        }
+        char c = regexp.charAt(start);
+        return c == '*' || c == '+' || (c == '{' && regexp.charAt(end - 2) == ',');
+    }
+
+    private static int skipCharacterClass(String regexp, int start) {
+        int i = start + 1;
+        if (i < regexp.length() && regexp.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regexp.length() && regexp.charAt(i) == ']') {
+            i++;
+        }
+        int depth = 1;
+        while (i < regexp.length() && depth > 0) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private RegexUtils() {
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.github.setial.intellijjavadocs.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The thread confined pool of the buffers the javadocs are rendered into. Each thread keeps one buffer, which is
+ * taken by {@link #acquire()} and given back by {@link #release(StringBuilder)}. If the buffer of the thread is
+ * already taken (nested rendering, or a buffer which was never released), a new one is allocated.
+ * <p>
+ * The new buffers are sized from the lengths of the recently rendered texts, so they rarely grow. The buffers which
+ * grew over the maximum retained capacity are not kept.
+ *
+ * @author Sergey Timofiychuk
+ */
+public final class RenderBuffer {
+
+    private static final int MIN_CAPACITY = 64;
+
+    // the weight of the last observed length in the average, as a shift: 1/8
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>();
+
+    private final int maxRetainedCapacity;
+
+    private final AtomicLong allocations = new AtomicLong();
+
+    private final AtomicLong reuses = new AtomicLong();
+
+    // the average length of the rendered texts, updated racily as it is only a sizing hint
+    private volatile int averageLength;
+
+    /**
+     * Instantiates a new Render buffer.
+     *
+     * @param initialLength       the expected length of the rendered texts
+     * @param maxRetainedCapacity the maximum capacity of the buffer kept by the thread
+     */
+    public RenderBuffer(int initialLength, int maxRetainedCapacity) {
+        this.averageLength = initialLength;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Takes the empty buffer of the current thread.
+     *
+     * @return the buffer
+     */
+    @NotNull
+    public StringBuilder acquire() {
+        StringBuilder buffer = buffers.get();
+        if (buffer != null) {
+            buffers.set(null);
+            reuses.incrementAndGet();
+            return buffer;
+        }
+        allocations.incrementAndGet();
+        return new StringBuilder(getExpectedCapacity());
+    }
+
+    /**
+     * Gets the text of the buffer and gives the buffer back to the current thread.
+     *
+     * @param buffer the buffer taken by {@link #acquire()}
+     * @return the text of the buffer
+     */
+    @NotNull
+    public String release(@NotNull StringBuilder buffer) {
+        String result = buffer.toString();
+        int average = averageLength;
+        averageLength = average + ((result.length() - average) >> AVERAGE_SHIFT);
+        recycle(buffer);
+        return result;
+    }
+
+    /**
+     * Gives the buffer back to the current thread without reading it, e.g. when the rendering failed.
+     *
+     * @param buffer the buffer taken by {@link #acquire()}
+     */
+    public void recycle(@NotNull StringBuilder buffer) {
+        if (buffer.capacity() <= maxRetainedCapacity) {
+            buffer.setLength(0);
+            buffers.set(buffer);
+        } else {
+            buffers.remove();
+        }
+    }
+
+    /**
+     * Gets the number of the buffers allocated since the pool was created.
+     *
+     * @return the allocation count
+     */
+    public long getAllocationCount() {
+        return allocations.get();
+    }
+
+    /**
+     * Gets the number of the times a kept buffer was reused.
+     *
+     * @return the reuse count
+     */
+    public long getReuseCount() {
+        return reuses.get();
+    }
+
+    private int getExpectedCapacity() {
+        // room for the longer than average texts, so the buffer does not grow right away
+        int capacity = averageLength * 2;
+        return Math.min(Math.max(capacity, MIN_CAPACITY), maxRetainedCapacity);
+    }
+
+}
@@ -0,0 +1,262 @@
+package com.github.setial.intellijjavadocs.utils;
+
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiModifierListOwner;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.StubBasedPsiElement;
+import com.intellij.psi.impl.java.stubs.PsiAnnotationStub;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The type Signature utils.
+ * <p>
+ * Builds the element signatures that are matched against the template regexps. The signatures are assembled from the
+ * element structure (modifiers, types, names), the element bodies are never read, so the signatures can be built
+ * from stubs.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class SignatureUtils {
+
+    private static final String ENUM = "Enum";
+
+    private static final String ANNOTATION = "Annotation";
+
+    private static final String[] MODIFIERS = {
+            PsiModifier.PUBLIC, PsiModifier.PROTECTED, PsiModifier.PRIVATE, PsiModifier.ABSTRACT, PsiModifier.DEFAULT,
+            PsiModifier.STATIC, PsiModifier.FINAL, PsiModifier.TRANSIENT, PsiModifier.VOLATILE,
+            PsiModifier.SYNCHRONIZED, PsiModifier.NATIVE, PsiModifier.STRICTFP
+    };
+
+    /**
+     * Builds the method signature, e.g. <code>@Override public String getName() </code>. The signature of the
+     * method without body ends with <code>;</code>, the signature of the method with body ends with a space. The
+     * parameters are written as annotations, <code>final</code>, type and name; the C-style array parameter
+     * <code>String args[]</code> is written as <code>String[] args</code>, as the type is read from the stub.
+     *
+     * @param method the method
+     * @return the signature
+     */
+    @NotNull
+    public static String buildMethodSignature(@NotNull PsiMethod method) {
+        StringBuilder builder = new StringBuilder();
+        String modifiers = buildModifiers(method);
+        if (!modifiers.isEmpty()) {
+            builder.append(modifiers).append(" ");
+        }
+        PsiTypeParameter[] typeParameters = method.getTypeParameters();
+        if (typeParameters.length > 0) {
+            builder.append("<");
+            for (int i = 0; i < typeParameters.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                appendTypeParameter(typeParameters[i], builder);
+            }
+            builder.append("> ");
+        }
+        PsiType returnType = method.getReturnType();
+        if (returnType != null) {
+            builder.append(returnType.getPresentableText()).append(" ");
+        }
+        builder.append(method.getName()).append("(");
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            PsiParameter parameter = parameters[i];
+            String parameterModifiers = buildModifiers(parameter);
+            if (!parameterModifiers.isEmpty()) {
+                builder.append(parameterModifiers).append(" ");
+            }
+            builder.append(parameter.getType().getPresentableText()).append(" ").append(parameter.getName());
+        }
+        builder.append(")");
+        PsiClassType[] throwsTypes = method.getThrowsList().getReferencedTypes();
+        if (throwsTypes.length > 0) {
+            builder.append(" throws ");
+            for (int i = 0; i < throwsTypes.length; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(throwsTypes[i].getPresentableText());
+            }
+        }
+        builder.append(hasBody(method) ? " " : ";");
+        return builder.toString();
+    }
+
+    // decided by the modifiers, the body itself is not in the stub
+    private static boolean hasBody(PsiMethod method) {
+        if (method.hasModifierProperty(PsiModifier.ABSTRACT) || method.hasModifierProperty(PsiModifier.NATIVE)) {
+            return false;
+        }
+        PsiClass containingClass = method.getContainingClass();
+        if (containingClass != null && containingClass.isInterface()) {
+            return method.hasModifierProperty(PsiModifier.DEFAULT) || method.hasModifierProperty(PsiModifier.STATIC)
+                    || method.hasModifierProperty(PsiModifier.PRIVATE);
+        }
+        return true;
+    }
+
+    /**
+     * Builds the class signature, e.g. <code>public class Foo extends Bar implementsBaz </code>. The extends and
+     * implements lists contain the reference names as written in the source, nothing is resolved. The format is the
+     * one the class templates have always been matched against, including <code>Enum</code> as implicit super class
+     * of enums, <code>Annotation</code> as implicit super interface of annotation types and no space after
+     * <code>implements</code>.
+     *
+     * @param classElement the class element
+     * @return the signature
+     */
+    @NotNull
+    public static String buildClassSignature(@NotNull PsiClass classElement) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(buildModifiers(classElement));
+        builder.append(" ");
+        if (classElement.isInterface()) {
+            builder.append("interface ");
+        } else if (classElement.isEnum()) {
+            builder.append("enum ");
+        } else {
+            builder.append("class ");
+        }
+        builder.append(classElement.getName());
+        builder.append(" ");
+        List<String> extendsNames = new ArrayList<String>();
+        if (classElement.isEnum()) {
+            extendsNames.add(ENUM);
+        } else if (classElement.isAnnotationType()) {
+            extendsNames.add(ANNOTATION);
+        }
+        collectReferenceNames(classElement.getExtendsList(), extendsNames);
+        if (!extendsNames.isEmpty()) {
+            builder.append("extends ");
+            appendReferenceNames(extendsNames, builder);
+        }
+        List<String> implementsNames = new ArrayList<String>();
+        collectReferenceNames(classElement.getImplementsList(), implementsNames);
+        if (!implementsNames.isEmpty()) {
+            builder.append("implements");
+            appendReferenceNames(implementsNames, builder);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Builds the field signature, e.g. <code>private static final int SIZE = ...;</code>. The initializer is reduced
+     * to <code>...</code>, so the signature length does not depend on it. The signature of the enum constant is its
+     * name.
+     *
+     * @param field the field
+     * @return the signature
+     */
+    @NotNull
+    public static String buildFieldSignature(@NotNull PsiField field) {
+        if (field instanceof PsiEnumConstant) {
+            return field.getName();
+        }
+        StringBuilder builder = new StringBuilder();
+        String modifiers = buildModifiers(field);
+        if (!modifiers.isEmpty()) {
+            builder.append(modifiers).append(" ");
+        }
+        builder.append(field.getType().getPresentableText()).append(" ").append(field.getName());
+        builder.append(field.hasInitializer() ? " = ...;" : ";");
+        return builder.toString();
+    }
+
+    /**
+     * Builds the annotations and the explicit modifiers of the element in the canonical order, separated with
+     * spaces.
+     *
+     * @param element the element
+     * @return the modifiers or empty string if the element has none
+     */
+    @NotNull
+    public static String buildModifiers(@NotNull PsiModifierListOwner element) {
+        PsiModifierList modifierList = element.getModifierList();
+        if (modifierList == null) {
+            return StringUtils.EMPTY;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (PsiAnnotation annotation : modifierList.getAnnotations()) {
+            if (builder.length() > 0) {
+                builder.append(" ");
+            }
+            builder.append(getAnnotationText(annotation));
+        }
+        for (String modifier : MODIFIERS) {
+            if (modifierList.hasExplicitModifier(modifier)) {
+                if (builder.length() > 0) {
+                    builder.append(" ");
+                }
+                builder.append(modifier);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String getAnnotationText(PsiAnnotation annotation) {
+        if (annotation instanceof StubBasedPsiElement) {
+            Object stub = ((StubBasedPsiElement) annotation).getStub();
+            if (stub instanceof PsiAnnotationStub) {
+                return ((PsiAnnotationStub) stub).getText();
+            }
+        }
+        return annotation.getText();
+    }
+
+    private static void collectReferenceNames(@Nullable PsiReferenceList referenceList, List<String> names) {
+        if (referenceList == null) {
+            return;
+        }
+        for (PsiClassType type : referenceList.getReferencedTypes()) {
+            names.add(type.getClassName());
+        }
+    }
+
+    private static void appendReferenceNames(List<String> names, StringBuilder builder) {
+        for (int i = 0; i < names.size(); i++) {
+            builder.append(names.get(i));
+            if (i < names.size() - 1) {
+                builder.append(",");
+            }
+            builder.append(" ");
+        }
+    }
+
+    private static void appendTypeParameter(PsiTypeParameter typeParameter, StringBuilder builder) {
+        builder.append(typeParameter.getName());
+        PsiClassType[] bounds = typeParameter.getExtendsListTypes();
+        if (bounds.length > 0) {
+            builder.append(" extends ");
+            for (int i = 0; i < bounds.length; i++) {
+                if (i > 0) {
+                    builder.append(" & ");
+                }
+                builder.append(bounds[i].getPresentableText());
+            }
+        }
+    }
+
+    private SignatureUtils() {
+    }
+
+}
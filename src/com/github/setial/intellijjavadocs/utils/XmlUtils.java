@@ -38,19 +38,6 @@ public class XmlUtils {
         return element.getTextTrim();
     }
 
-    /**
-     * Normalize template.
-     *
-     * @param template the template
-     * @return the string
-     * @throws IOException the iO exception
-     */
-    public static String normalizeTemplate(String template) throws IOException {
-        Element element = new Element("template");
-        element.addContent(template);
-        return element.getTextNormalize().replaceAll("\\\\n", "\n");
-    }
-
     /**
      * Gets element.
      *
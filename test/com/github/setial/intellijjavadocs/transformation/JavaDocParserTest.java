@@ -0,0 +1,106 @@
+package com.github.setial.intellijjavadocs.transformation;
+
+import com.github.setial.intellijjavadocs.model.JavaDoc;
+import com.github.setial.intellijjavadocs.model.JavaDocTag;
+import com.github.setial.intellijjavadocs.utils.JavaDocUtils;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import com.intellij.util.IncorrectOperationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The differential test of {@link JavaDocParser}: the model parsed from the text is compared with the model built
+ * from the PSI tree of the same text, which the parser replaces.
+ *
+ * @author Sergey Timofiychuk
+ */
+public class JavaDocParserTest extends LightCodeInsightFixtureTestCase {
+
+    private static final String[] WELL_FORMED = {
+            "/** Short. */",
+            "/**\n * The description.\n */",
+            "/**\n * The {@link Foo} and {@code bar < baz} in {@linkplain Foo#bar(int, String) text}.\n *\n"
+                    + " * @param name  the {@link Foo} name\n * @return the value\n */",
+            "/**\n * The code:\n * <pre>\n *   int a = 1;\n *   {@literal @}Override\n * </pre>\n */",
+            "/**\n * Generic.\n *\n * @param <T> the type\n * @param value the value\n */",
+            "/**\n * @see Foo\n * @see Foo#bar(int, String)\n * @see #baz()\n * @see <a href=\"x\">x</a>\n */",
+            "/**\n * @throws IOException if it fails\n * @throws java.lang.IllegalStateException when\n */",
+            "/**\n * @author Sergey Timofiychuk\n * @since 1.0\n * @deprecated use {@link Bar}\n */",
+            "/**\n   no asterisks\n   @param a the a\n */",
+            "/**\n * Unbalanced {@link Foo\n * @param a the a\n */",
+            "/**\n * The email@example.com and { braces }.\n */"
+    };
+
+    private static final String[] MALFORMED = {
+            "/**\n * @param\n */",
+            "/**\n * @param\n * @param name\n */",
+            "/**\n * {@ bad}\n */",
+            "/**\n * @see Foo#bar(int; String)\n */",
+            "/**\n * The unterminated comment",
+            "/** first */ /** second */"
+    };
+
+    private PsiElementFactory factory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        factory = JavaPsiFacade.getElementFactory(getProject());
+    }
+
+    /**
+     * The well formed javadocs are parsed into the same model as through the PSI tree.
+     */
+    public void testWellFormedJavaDocs() {
+        for (String text : WELL_FORMED) {
+            JavaDoc parsed = JavaDocParser.parse(text);
+            assertNotNull("Not parsed: " + text, parsed);
+            assertSameJavaDoc(text, JavaDocUtils.createJavaDoc(factory.createDocCommentFromText(text)), parsed);
+        }
+    }
+
+    /**
+     * The malformed javadocs fall back to the PSI parser, so they are converted or rejected as by the PSI parser.
+     */
+    public void testMalformedJavaDocs() {
+        for (String text : MALFORMED) {
+            JavaDoc expected;
+            try {
+                expected = JavaDocUtils.createJavaDoc(factory.createDocCommentFromText(text));
+            } catch (IncorrectOperationException e) {
+                expected = null;
+            }
+            try {
+                JavaDoc converted = JavaDocUtils.toJavaDoc(text, factory);
+                assertNotNull("Rejected by PSI but converted: " + text, expected);
+                assertSameJavaDoc(text, expected, converted);
+            } catch (IncorrectOperationException e) {
+                assertNull("Converted by PSI but rejected: " + text, expected);
+            }
+        }
+    }
+
+    private static void assertSameJavaDoc(String text, JavaDoc expected, JavaDoc actual) {
+        assertEquals("Description of " + text, expected.getDescription(), actual.getDescription());
+        Map<String, List<JavaDocTag>> expectedTags = expected.getTags();
+        Map<String, List<JavaDocTag>> actualTags = actual.getTags();
+        assertEquals("Tags of " + text, expectedTags.keySet(), actualTags.keySet());
+        for (Entry<String, List<JavaDocTag>> entry : expectedTags.entrySet()) {
+            List<JavaDocTag> actualTagList = actualTags.get(entry.getKey());
+            assertEquals("Tags @" + entry.getKey() + " of " + text, entry.getValue().size(), actualTagList.size());
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                JavaDocTag expectedTag = entry.getValue().get(i);
+                JavaDocTag actualTag = actualTagList.get(i);
+                String tag = "Tag @" + entry.getKey() + " #" + i + " of " + text;
+                assertEquals(tag, expectedTag.getRefParam(), actualTag.getRefParam());
+                assertEquals(tag, expectedTag.getValue(), actualTag.getValue());
+                assertEquals(tag, expectedTag.getDescription(), actualTag.getDescription());
+            }
+        }
+    }
+
+}